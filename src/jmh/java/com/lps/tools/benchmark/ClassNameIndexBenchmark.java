@@ -0,0 +1,107 @@
+package com.lps.tools.benchmark;
+
+import com.lps.tools.index.ClassNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description ClassNameIndex 与原 findMatchingClass 线性模糊匹配的对比。
+ * 每次调用查询一个控制器的全部出入参类型（精确命中、模糊命中、泛型未命中各占一部分）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassNameIndexBenchmark {
+
+    private static final String[] DOMAINS = {"User", "Order", "Product", "Payment", "Invoice", "Account", "Tenant", "Report"};
+    private static final String[] SUFFIXES = {"DTO", "VO", "BO", "PO", "Entity", "Request", "Response", "Query"};
+
+    @Param({"1000", "10000", "100000"})
+    private int dataClassCount;
+
+    private Map<String, String> dataClasses;
+    private ClassNameIndex index;
+    private List<String> queries;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        dataClasses = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < dataClassCount; i++) {
+            String name = DOMAINS[random.nextInt(DOMAINS.length)] + i + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            names.add(name);
+            dataClasses.put(name, "src/main/java/com/example/dto/" + name + ".java");
+        }
+        index = new ClassNameIndex(dataClasses);
+
+        queries = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            // 精确命中
+            queries.add(name);
+            // 模糊命中（大小写不同、截去后缀）
+            queries.add(name.substring(0, name.length() - 2).toLowerCase());
+            // 泛型类型，原实现会扫描全部类名后未命中
+            queries.add("ResponseEntity<List<" + name + ">>");
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(findMatchingClass(query, dataClasses));
+        }
+    }
+
+    @Benchmark
+    public void indexLookup(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(index.find(query));
+        }
+    }
+
+    @Benchmark
+    public void indexBuildAndLookup(Blackhole blackhole) {
+        ClassNameIndex fresh = new ClassNameIndex(dataClasses);
+        for (String query : queries) {
+            blackhole.consume(fresh.find(query));
+        }
+    }
+
+    /**
+     * 原 GithubService.findMatchingClass 实现
+     */
+    private static String findMatchingClass(String className, Map<String, String> dataClasses) {
+        if (dataClasses.containsKey(className)) {
+            return dataClasses.get(className);
+        }
+        for (String dataClassName : dataClasses.keySet()) {
+            if (dataClassName.toLowerCase().contains(className.toLowerCase())) {
+                return dataClasses.get(dataClassName);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lps.tools.benchmark;
+
+import com.lps.tools.util.CodeCleaner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description CodeCleaner 单次扫描与原 cleanCode 正则的对比，源码按真实控制器的结构生成（import、注解、文档注释、方法体）。
+ * 分配情况使用 -prof gc 查看：mvn -Pjmh test-compile exec:exec -Djmh.args="CodeCleaner -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeCleanerBenchmark {
+
+    /**
+     * 控制器方法数，约 20 / 100 / 400 行每方法的 4KB / 20KB / 80KB 源码
+     */
+    @Param({"5", "25", "100"})
+    private int methods;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = SourceGenerator.controller(new Random(42), "Order", methods);
+    }
+
+    @Benchmark
+    public String regex() {
+        return source.replaceAll("(package\\s+[^;]+;|import\\s+[^;]+;|\\n|\\r|\\t|\\s{2,})", " ").trim();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return CodeCleaner.clean(source);
+    }
+
+    @Benchmark
+    public String scannerStripComments() {
+        return CodeCleaner.clean(source, true);
+    }
+}
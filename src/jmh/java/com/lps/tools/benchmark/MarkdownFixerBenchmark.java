@@ -0,0 +1,116 @@
+package com.lps.tools.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lps.tools.model.ApiDocumentation;
+import com.lps.tools.model.ApiMdRequest;
+import com.lps.tools.service.MarkdownFixerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description MarkdownFixerService 处理 LLM 输出：去掉代码块标识、解析 JSON、修复转义符号，再拼接目录和接口文档（或直接写入响应流）。
+ * SampleTime 模式输出延迟分位数，分配情况使用 -prof gc 查看：
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="MarkdownFixer -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownFixerBenchmark {
+
+    /**
+     * 接口数，即一次请求中 LLM 输出的条数
+     */
+    @Param({"50", "1000", "2000"})
+    private int apis;
+
+    private final MarkdownFixerService markdownFixerService = new MarkdownFixerService();
+
+    private List<String> outputs;
+    private byte[] requestBody;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        outputs = new ArrayList<>(apis);
+        for (int i = 0; i < apis; i++) {
+            outputs.add(SourceGenerator.llmOutput(random, i));
+        }
+        requestBody = new ObjectMapper().writeValueAsBytes(new ApiMdRequest(outputs));
+    }
+
+    @Benchmark
+    public List<ApiDocumentation> fixMarkdown() throws Exception {
+        return markdownFixerService.fixMarkdown(outputs);
+    }
+
+    @Benchmark
+    public String subMdToStr() throws Exception {
+        return markdownFixerService.subMdToStr(outputs);
+    }
+
+    /**
+     * 排序模式：并行解析、去重并按路径前缀分组排序
+     */
+    @Benchmark
+    public String subMdToStrSorted() throws Exception {
+        return markdownFixerService.subMdToStr(outputs, true);
+    }
+
+    /**
+     * /fix-markdown/stream：从请求体流式读取，结果写入响应流（这里丢弃输出，只计算生成的字符数）
+     */
+    @Benchmark
+    public long writeMarkdownStream() throws IOException {
+        CountingWriter out = new CountingWriter();
+        markdownFixerService.writeMarkdown(new ByteArrayInputStream(requestBody), out);
+        return out.count;
+    }
+
+    private static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
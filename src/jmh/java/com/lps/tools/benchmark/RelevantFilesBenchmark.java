@@ -0,0 +1,73 @@
+package com.lps.tools.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lps.tools.model.GitHubTreeItem;
+import com.lps.tools.model.RelevantFiles;
+import com.lps.tools.service.GithubService;
+import com.lps.tools.service.RepoFileService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description 仓库文件树处理：recursive tree 响应解析为 GitHubTreeItem，再由 findRelevantFiles 筛选控制器、数据类并建立类名索引。
+ * SampleTime 模式输出 p50/p90/p99 等延迟分位数，分配情况使用 -prof gc 查看：
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RelevantFiles -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RelevantFilesBenchmark {
+
+    /**
+     * 文件树条目数，200000 接近 GitHub recursive tree 接口不截断时的上限
+     */
+    @Param({"10000", "200000"})
+    private int entries;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GithubService githubService = new GithubService();
+
+    private byte[] treeJson;
+    private List<GitHubTreeItem> tree;
+
+    @Setup
+    public void setup() throws IOException {
+        treeJson = SourceGenerator.treeJson(new Random(42), entries).getBytes();
+        tree = RepoFileService.treeItems(mapper.readTree(treeJson), "");
+    }
+
+    @Benchmark
+    public List<GitHubTreeItem> parseTree() throws IOException {
+        JsonNode response = mapper.readTree(treeJson);
+        return RepoFileService.treeItems(response, "");
+    }
+
+    @Benchmark
+    public RelevantFiles findRelevantFiles() {
+        return githubService.findRelevantFiles(tree);
+    }
+
+    @Benchmark
+    public RelevantFiles parseAndFind() throws IOException {
+        return githubService.findRelevantFiles(RepoFileService.treeItems(mapper.readTree(treeJson), ""));
+    }
+}
@@ -0,0 +1,53 @@
+package com.lps.tools.benchmark;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.lps.tools.util.DeclarationExtractor;
+import com.lps.tools.util.JavaParsers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description 控制器完整解析与只解析声明（DeclarationExtractor 去掉方法体后解析）的对比。
+ * 每个文件的堆分配使用 -prof gc 查看：mvn -Pjmh test-compile exec:exec -Djmh.args="SignatureExtraction -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureExtractionBenchmark {
+
+    @Param({"25", "100"})
+    private int methods;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = SourceGenerator.controller(new Random(42), "Order", methods);
+    }
+
+    @Benchmark
+    public CompilationUnit fullParse() {
+        return JavaParsers.parse(source);
+    }
+
+    @Benchmark
+    public CompilationUnit declarationsOnly() {
+        return JavaParsers.parse(DeclarationExtractor.stripBodies(source));
+    }
+}
@@ -0,0 +1,139 @@
+package com.lps.tools.benchmark;
+
+import java.util.Random;
+
+/**
+ * @author hhuang26
+ * @description 生成结构接近真实项目的 Java 源码、仓库文件树 JSON 和 LLM 输出，供基准测试使用。
+ * 所有语料由固定种子生成，同一参数每次生成的内容相同
+ */
+public class SourceGenerator {
+
+    private static final String[] SUFFIXES = {"DTO", "VO", "Request", "Response", "Query"};
+    private static final String[] FIELD_TYPES = {"String", "Long", "Integer", "BigDecimal", "LocalDateTime", "Boolean"};
+    private static final String[] DOMAINS = {"user", "order", "product", "payment", "invoice", "account", "tenant", "report"};
+    private static final String[] LAYERS = {"controller", "service", "service/impl", "mapper", "dto", "entity", "vo", "util", "config"};
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    private SourceGenerator() {
+    }
+
+    /**
+     * Spring MVC 控制器：import、类注解、文档注释，每个方法带参数注解、泛型返回值和若干语句
+     */
+    public static String controller(Random random, String domain, int methods) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.example.").append(domain.toLowerCase()).append(".controller;\n\n");
+        sb.append("import com.example.common.Result;\n");
+        sb.append("import org.springframework.web.bind.annotation.*;\n");
+        sb.append("import org.springframework.beans.factory.annotation.Autowired;\n");
+        sb.append("import java.util.List;\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("import com.example.").append(domain.toLowerCase()).append(".dto.")
+                    .append(dtoName(domain, i)).append(";\n");
+        }
+        sb.append("\n/**\n * ").append(domain).append(" 管理接口\n *\n * @author generator\n */\n");
+        sb.append("@RestController\n@RequestMapping(\"/api/").append(domain.toLowerCase()).append("\")\n");
+        sb.append("public class ").append(domain).append("Controller {\n\n");
+        sb.append("    @Autowired\n    private ").append(domain).append("Service service;\n\n");
+        for (int i = 0; i < methods; i++) {
+            String dto = dtoName(domain, i);
+            sb.append("    /**\n     * 查询").append(domain).append("列表，第 ").append(i).append(" 个接口\n");
+            sb.append("     * @param request 查询条件\n     * @return 结果\n     */\n");
+            sb.append("    @PostMapping(\"/query").append(i).append("\")\n");
+            sb.append("    public Result<List<").append(dto).append(">> query").append(i)
+                    .append("(@RequestBody ").append(dto).append(" request,\n");
+            sb.append("                                         @RequestParam(required = false) String keyword) {\n");
+            sb.append("        // 参数校验\n");
+            sb.append("        if (request == null) {\n");
+            sb.append("            return Result.fail(\"request must not be null; see /docs\");\n");
+            sb.append("        }\n");
+            for (int j = 0; j < 3 + random.nextInt(5); j++) {
+                sb.append("        log.info(\"step ").append(j).append(" keyword={}\", keyword);\n");
+            }
+            sb.append("\t\treturn Result.ok(service.query").append(i).append("(request));\n");
+            sb.append("    }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * 数据类：字段带注释和注解
+     */
+    public static String dataClass(Random random, String packageName, String name, int fields) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("import lombok.Data;\nimport java.math.BigDecimal;\nimport java.time.LocalDateTime;\n\n");
+        sb.append("/**\n * ").append(name).append("\n */\n@Data\npublic class ").append(name).append(" {\n");
+        for (int i = 0; i < fields; i++) {
+            sb.append("    /** 字段 ").append(i).append(" */\n");
+            sb.append("    private ").append(FIELD_TYPES[random.nextInt(FIELD_TYPES.length)]).append(" field").append(i).append(";\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    public static String dtoName(String domain, int i) {
+        return domain + i + SUFFIXES[i % SUFFIXES.length];
+    }
+
+    /**
+     * GitHub recursive tree 接口的响应：多模块项目，按 模块/层/领域 分目录，约九成为 .java 文件，其余为目录和资源文件
+     */
+    public static String treeJson(Random random, int entries) {
+        StringBuilder sb = new StringBuilder(entries * 140);
+        sb.append("{\"sha\":\"").append(sha(random)).append("\",\"url\":\"https://api.github.com/repos/example/demo/git/trees/main\",\"tree\":[");
+        for (int i = 0; i < entries; i++) {
+            String module = "module-" + (i % 40);
+            String domain = DOMAINS[random.nextInt(DOMAINS.length)];
+            String layer = LAYERS[random.nextInt(LAYERS.length)];
+            String path;
+            String type;
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                path = module + "/src/main/java/com/example/" + domain + "/" + layer;
+                type = "tree";
+            } else if (kind == 1) {
+                path = module + "/src/main/resources/mapper/" + domain + i + ".xml";
+                type = "blob";
+            } else {
+                String name = Character.toUpperCase(domain.charAt(0)) + domain.substring(1) + i
+                        + Character.toUpperCase(layer.charAt(0)) + layer.substring(1).replace("/impl", "Impl");
+                path = module + "/src/main/java/com/example/" + domain + "/" + layer + "/" + name + ".java";
+                type = "blob";
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"path\":\"").append(path).append("\",\"mode\":\"100644\",\"type\":\"").append(type)
+                    .append("\",\"sha\":\"").append(sha(random)).append("\",\"size\":").append(random.nextInt(20000))
+                    .append(",\"url\":\"https://api.github.com/repos/example/demo/git/blobs/").append(i).append("\"}");
+        }
+        sb.append("],\"truncated\":false}");
+        return sb.toString();
+    }
+
+    /**
+     * LLM 为单个接口生成的输出：```json 代码块包裹的 JSON 对象，apiInfo、cat 中的换行、引号、制表符是双重转义的
+     */
+    public static String llmOutput(Random random, int i) {
+        String domain = DOMAINS[random.nextInt(DOMAINS.length)];
+        String method = METHODS[random.nextInt(METHODS.length)];
+        StringBuilder apiInfo = new StringBuilder();
+        apiInfo.append("## ").append(method).append(" /api/").append(domain).append("/").append(i).append("\\\\n\\\\n");
+        apiInfo.append("### Request Parameters\\\\n| Name | Type | Required | Description |\\\\n| --- | --- | --- | --- |\\\\n");
+        for (int j = 0; j < 4 + random.nextInt(8); j++) {
+            apiInfo.append("| field").append(j).append(" | ").append(FIELD_TYPES[random.nextInt(FIELD_TYPES.length)])
+                    .append(" | ").append(random.nextBoolean()).append(" | 字段 ").append(j).append(" |\\\\n");
+        }
+        apiInfo.append("### Response Example\\\\n```json\\\\n{\\\\n\\\\t\\\\\\\"code\\\\\\\": 0,\\\\n\\\\t\\\\\\\"data\\\\\\\": {}\\\\n}\\\\n```\\\\n");
+        String cat = "| /api/" + domain + "/" + i + " | " + method + " | 查询" + domain + " |";
+        return "```json\n{\"apiInfo\": \"" + apiInfo + "\", \"cat\": \"" + cat + "\"}\n```";
+    }
+
+    private static String sha(Random random) {
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE)
+                + Integer.toHexString(random.nextInt() | Integer.MIN_VALUE);
+    }
+}
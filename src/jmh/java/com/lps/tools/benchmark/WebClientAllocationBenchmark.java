@@ -0,0 +1,88 @@
+package com.lps.tools.benchmark;
+
+import com.lps.tools.config.GitHubAuthExchangeFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description 每个请求重新构建 WebClient 与共享 WebClient（认证过滤器）的对比。
+ * 使用固定响应的 ExchangeFunction 代替网络，只衡量客户端构建、过滤器和解码的开销；
+ * 分配情况使用 -prof gc 查看（gc.alloc.rate.norm）：
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="WebClientAllocation -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebClientAllocationBenchmark {
+
+    private static final String BODY = "{\"sha\":\"abc\",\"truncated\":false,\"tree\":[{\"path\":\"pom.xml\",\"type\":\"blob\",\"sha\":\"def\"}]}";
+
+    private WebClient.Builder builder;
+    private WebClient shared;
+
+    @Setup
+    public void setup() {
+        // 固定响应复用同一份 ExchangeStrategies，避免每次创建编解码器干扰结果
+        ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+        ExchangeFunction exchange = request -> Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(BODY)
+                .build());
+        builder = WebClient.builder().exchangeStrategies(strategies).exchangeFunction(exchange);
+        shared = builder.clone()
+                .baseUrl("https://api.github.com")
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .filter(new GitHubAuthExchangeFilter())
+                .build();
+    }
+
+    /**
+     * 原 GitHubFileController 的方式：token 写入默认请求头，每个请求构建一次客户端
+     */
+    @Benchmark
+    public String perRequestClient() {
+        WebClient webClient = builder.clone()
+                .baseUrl("https://api.github.com")
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader("X-GitHub-Api-Version", "2022-11-28")
+                .build();
+        return webClient.get()
+                .uri("/repos/{owner}/{repo}/git/trees/{tree}", "owner", "repo", "main")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    @Benchmark
+    public String sharedClient() {
+        return shared.get()
+                .uri("/repos/{owner}/{repo}/git/trees/{tree}", "owner", "repo", "main")
+                .attributes(GitHubAuthExchangeFilter.credentials("token", "2022-11-28"))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+}
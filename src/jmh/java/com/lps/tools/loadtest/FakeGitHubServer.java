@@ -0,0 +1,456 @@
+package com.lps.tools.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author hhuang26
+ * @description 本地的 GitHub API 模拟服务，基于 JDK HttpServer，所有仓库都返回同一个 SyntheticRepository 的内容：
+ * 仓库信息、branches、git/trees（支持 recursive 及截断）、git/blobs、contents（文件及目录）、zipball、compare、rate_limit。
+ * 每个仓库的提交 SHA 由 owner/repo 计算，不同仓库的分析结果互不命中缓存，但 blob 相同。
+ * 可注入延迟（固定值 + 随机抖动）、5xx 错误和 429 限流响应；按 token 维护 X-RateLimit-* 配额，分支接口支持 ETag / 304；
+ * --private=true 时模拟私有仓库，download_url 带 token。
+ * <p>
+ * 单独启动：mvn -Pjmh test-compile exec:exec -Djmh.main=com.lps.tools.loadtest.FakeGitHubServer -Djmh.args="--port=9099 --latency=80"，
+ * 然后以 --tools.github.api-base-url=http://127.0.0.1:9099 启动服务
+ */
+public class FakeGitHubServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(FakeGitHubServer.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final long RATE_LIMIT_WINDOW_SECONDS = 3600;
+
+    private final SyntheticRepository repository;
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedRateLimits = new AtomicLong();
+
+    public FakeGitHubServer(SyntheticRepository repository, Options options) throws IOException {
+        this.repository = repository;
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 1024);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(options.threads, runnable -> {
+            Thread thread = new Thread(runnable, "fake-github-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public FakeGitHubServer start() {
+        server.start();
+        logger.info("模拟 GitHub 服务已启动: {}，仓库文件数 {}，延迟 {}ms ± {}ms，错误率 {}，限流率 {}", baseUrl(),
+                repository.fileCount(), options.latencyMillis, options.jitterMillis, options.errorRate, options.rateLimitRate);
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 各类接口的请求数，以及注入的错误数、限流数
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new TreeMap<>();
+        requestCounts.forEach((endpoint, count) -> stats.put(endpoint, count.sum()));
+        stats.put("injected-errors", injectedErrors.get());
+        stats.put("injected-rate-limits", injectedRateLimits.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String[] parts = path.split("/");
+            String endpoint = endpointName(parts);
+            requestCounts.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+
+            delay();
+            Quota quota = quota(exchange.getRequestHeaders().getFirst("Authorization"));
+            if (!"rate_limit".equals(endpoint)) {
+                if (quota.remaining.get() <= 0) {
+                    sendRateLimited(exchange, quota, 403, null);
+                    return;
+                }
+                if (options.rateLimitRate > 0 && ThreadLocalRandom.current().nextDouble() < options.rateLimitRate) {
+                    injectedRateLimits.incrementAndGet();
+                    sendRateLimited(exchange, quota, 429, "1");
+                    return;
+                }
+                if (options.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < options.errorRate) {
+                    injectedErrors.incrementAndGet();
+                    sendJson(exchange, 502, quota, message("Server Error"));
+                    return;
+                }
+                quota.remaining.decrementAndGet();
+            }
+
+            if ("repo".equals(endpoint)) {
+                repo(exchange, quota, parts[2], parts[3]);
+                return;
+            }
+            // /repos/{owner}/{repo}/...
+            if (parts.length < 5 || !"repos".equals(parts[1])) {
+                if ("rate_limit".equals(endpoint)) {
+                    sendJson(exchange, 200, quota, rateLimitBody(quota));
+                } else {
+                    sendJson(exchange, 404, quota, message("Not Found"));
+                }
+                return;
+            }
+            String commitSha = commitSha(parts[2], parts[3]);
+            switch (endpoint) {
+                case "branches" -> branch(exchange, quota, parts[5], commitSha);
+                case "trees" -> tree(exchange, quota, decode(parts[6]), query != null && query.contains("recursive="));
+                case "blobs" -> blob(exchange, quota, parts[6]);
+                case "contents" -> contents(exchange, quota, parts[2], parts[3], contentsPath(path), query);
+                case "zipball" -> send(exchange, 200, quota, "application/zip", repository.zipball());
+                case "compare" -> compare(exchange, quota, decode(parts[5]), commitSha);
+                default -> sendJson(exchange, 404, quota, message("Not Found"));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("模拟 GitHub 服务处理请求失败: {}", exchange.getRequestURI(), e);
+        }
+    }
+
+    private void branch(HttpExchange exchange, Quota quota, String branch, String commitSha) throws IOException {
+        String etag = "\"" + commitSha + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            // 304 不计入配额
+            quota.remaining.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", etag);
+            // JDK HttpServer 发送无响应体的 304 后会关闭连接，显式声明，避免客户端复用已关闭的连接
+            exchange.getResponseHeaders().set("Connection", "close");
+            send(exchange, 304, quota, null, null);
+            return;
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("name", decode(branch));
+        body.putObject("commit").put("sha", commitSha);
+        exchange.getResponseHeaders().set("ETag", etag);
+        sendJson(exchange, 200, quota, body);
+    }
+
+    private void tree(HttpExchange exchange, Quota quota, String treeish, boolean recursive) throws IOException {
+        // 提交 SHA 及分支名都指向根目录
+        String sha = repository.isTree(treeish) ? treeish : repository.rootTreeSha();
+        List<SyntheticRepository.Entry> entries = repository.tree(sha, recursive);
+        boolean truncated = recursive && options.truncateAbove > 0 && entries.size() > options.truncateAbove;
+        if (truncated) {
+            entries = entries.subList(0, options.truncateAbove);
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("sha", sha);
+        ArrayNode tree = body.putArray("tree");
+        for (SyntheticRepository.Entry entry : entries) {
+            ObjectNode item = tree.addObject();
+            item.put("path", entry.path());
+            item.put("mode", "tree".equals(entry.type()) ? "040000" : "100644");
+            item.put("type", entry.type());
+            item.put("sha", entry.sha());
+            if ("blob".equals(entry.type())) {
+                item.put("size", entry.size());
+            }
+        }
+        body.put("truncated", truncated);
+        sendJson(exchange, 200, quota, body);
+    }
+
+    private void blob(HttpExchange exchange, Quota quota, String sha) throws IOException {
+        byte[] content = repository.blob(sha);
+        if (content == null) {
+            sendJson(exchange, 404, quota, message("Not Found"));
+            return;
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("sha", sha);
+        body.put("size", content.length);
+        body.put("content", encode(content));
+        body.put("encoding", "base64");
+        sendJson(exchange, 200, quota, body);
+    }
+
+    private void repo(HttpExchange exchange, Quota quota, String owner, String repo) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("full_name", owner + "/" + repo);
+        body.put("private", options.privateRepository);
+        body.put("default_branch", "main");
+        sendJson(exchange, 200, quota, body);
+    }
+
+    // 文件返回内容，目录返回子项列表（不含内容）
+    private void contents(HttpExchange exchange, Quota quota, String owner, String repo, String path, String query) throws IOException {
+        String ref = query != null && query.startsWith("ref=") ? decode(query.substring("ref=".length())) : "main";
+        List<SyntheticRepository.Entry> children = repository.directory(path);
+        if (children != null) {
+            ArrayNode body = mapper.createArrayNode();
+            for (SyntheticRepository.Entry child : children) {
+                String childPath = path.isEmpty() ? child.path() : path + "/" + child.path();
+                ObjectNode item = body.addObject();
+                item.put("type", "tree".equals(child.type()) ? "dir" : "file");
+                item.put("name", child.path());
+                item.put("path", childPath);
+                item.put("sha", child.sha());
+                item.put("size", child.size());
+                item.put("download_url", "tree".equals(child.type()) ? null : downloadUrl(owner, repo, ref, childPath));
+            }
+            send(exchange, 200, quota, "application/json", mapper.writeValueAsBytes(body));
+            return;
+        }
+        byte[] content = repository.file(path);
+        if (content == null) {
+            sendJson(exchange, 404, quota, message("Not Found"));
+            return;
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("type", "file");
+        body.put("name", path.substring(path.lastIndexOf('/') + 1));
+        body.put("path", path);
+        body.put("sha", repository.blobSha(path));
+        body.put("size", content.length);
+        body.put("download_url", downloadUrl(owner, repo, ref, path));
+        body.put("content", encode(content));
+        body.put("encoding", "base64");
+        sendJson(exchange, 200, quota, body);
+    }
+
+    // 私有仓库的下载地址与 GitHub 一样带有临时 token
+    private String downloadUrl(String owner, String repo, String ref, String path) {
+        String url = baseUrl() + "/raw/" + owner + "/" + repo + "/" + ref + "/" + path;
+        return options.privateRepository ? url + "?token=FAKE" + Integer.toHexString(path.hashCode()) : url;
+    }
+
+    private static String contentsPath(String rawPath) {
+        int start = rawPath.indexOf("/contents");
+        String path = rawPath.substring(start + "/contents".length());
+        return decode(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    // 仓库内容不会变化：同一提交返回 identical，其余返回 diverged，服务会改为获取完整的仓库树
+    private void compare(HttpExchange exchange, Quota quota, String range, String commitSha) throws IOException {
+        String base = range.substring(0, Math.max(0, range.indexOf("...")));
+        ObjectNode body = mapper.createObjectNode();
+        body.put("status", base.equals(commitSha) ? "identical" : "diverged");
+        body.putArray("files");
+        sendJson(exchange, 200, quota, body);
+    }
+
+    private ObjectNode rateLimitBody(Quota quota) {
+        ObjectNode body = mapper.createObjectNode();
+        ObjectNode core = body.putObject("resources").putObject("core");
+        core.put("limit", options.rateLimit);
+        core.put("remaining", Math.max(0, quota.remaining.get()));
+        core.put("reset", quota.resetAt);
+        body.set("rate", core.deepCopy());
+        return body;
+    }
+
+    private void sendRateLimited(HttpExchange exchange, Quota quota, int status, String retryAfter) throws IOException {
+        if (retryAfter != null) {
+            exchange.getResponseHeaders().set("Retry-After", retryAfter);
+        }
+        sendJson(exchange, status, quota, message("API rate limit exceeded"));
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Quota quota, ObjectNode body) throws IOException {
+        send(exchange, status, quota, "application/json; charset=utf-8", mapper.writeValueAsBytes(body));
+    }
+
+    private void send(HttpExchange exchange, int status, Quota quota, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", String.valueOf(options.rateLimit));
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(Math.max(0, quota.remaining.get())));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(quota.resetAt));
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void delay() {
+        long millis = options.latencyMillis;
+        if (options.jitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextLong(options.jitterMillis + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 配额窗口到期后重置
+    private Quota quota(String authorization) {
+        String key = authorization == null ? "anonymous" : authorization;
+        long now = System.currentTimeMillis() / 1000;
+        return quotas.compute(key, (k, quota) -> quota == null || quota.resetAt <= now
+                ? new Quota(options.rateLimit, now + RATE_LIMIT_WINDOW_SECONDS) : quota);
+    }
+
+    private static String endpointName(String[] parts) {
+        if (parts.length >= 2 && "rate_limit".equals(parts[1])) {
+            return "rate_limit";
+        }
+        if (parts.length == 4 && "repos".equals(parts[1])) {
+            return "repo";
+        }
+        if (parts.length >= 5 && "repos".equals(parts[1])) {
+            return "git".equals(parts[4]) && parts.length >= 6 ? parts[5] : parts[4];
+        }
+        return "other";
+    }
+
+    /**
+     * 提交 SHA 由 owner/repo 计算，同一仓库每次相同
+     */
+    static String commitSha(String owner, String repo) {
+        return SyntheticRepository.sha1(("commit " + owner + "/" + repo).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 与 GitHub 一致：base64 内容每 60 个字符换行
+    private static String encode(byte[] content) {
+        return Base64.getMimeEncoder(60, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(content);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static ObjectNode message(String message) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("message", message);
+        body.put("documentation_url", "https://docs.github.com/rest");
+        return body;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options.port == 0) {
+            options.port = 9099;
+        }
+        SyntheticRepository repository = new SyntheticRepository(options.controllers, options.methods, options.fillerFiles);
+        new FakeGitHubServer(repository, options).start();
+        Thread.currentThread().join();
+    }
+
+    private static class Quota {
+        private final AtomicLong remaining;
+        private final long resetAt;
+
+        Quota(long limit, long resetAt) {
+            this.remaining = new AtomicLong(limit);
+            this.resetAt = resetAt;
+        }
+    }
+
+    /**
+     * 模拟服务的配置，命令行参数形如 --latency=80
+     */
+    public static class Options {
+        /**
+         * 监听端口，0 表示随机端口
+         */
+        int port;
+        int threads = 64;
+        /**
+         * 每个请求的固定延迟及随机抖动上限（毫秒）
+         */
+        long latencyMillis = 20;
+        long jitterMillis = 20;
+        /**
+         * 返回 502 的比例及返回 429（Retry-After: 1）的比例
+         */
+        double errorRate;
+        double rateLimitRate;
+        /**
+         * 每个 token 每小时的请求配额
+         */
+        long rateLimit = 5000;
+        /**
+         * recursive 树的条目数超过该值时截断并标记 truncated，0 表示不截断
+         */
+        int truncateAbove;
+        int controllers = 20;
+        int methods = 10;
+        int fillerFiles = 2000;
+        /**
+         * 仓库是否为私有：影响 contents 接口返回的 download_url 及 /repos/{owner}/{repo} 的 private 字段
+         */
+        boolean privateRepository;
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    continue;
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "port" -> options.port = Integer.parseInt(value);
+                    case "threads" -> options.threads = Integer.parseInt(value);
+                    case "latency" -> options.latencyMillis = Long.parseLong(value);
+                    case "jitter" -> options.jitterMillis = Long.parseLong(value);
+                    case "error-rate" -> options.errorRate = Double.parseDouble(value);
+                    case "rate-limit-rate" -> options.rateLimitRate = Double.parseDouble(value);
+                    case "rate-limit" -> options.rateLimit = Long.parseLong(value);
+                    case "truncate-above" -> options.truncateAbove = Integer.parseInt(value);
+                    case "controllers" -> options.controllers = Integer.parseInt(value);
+                    case "methods" -> options.methods = Integer.parseInt(value);
+                    case "filler-files" -> options.fillerFiles = Integer.parseInt(value);
+                    case "private" -> options.privateRepository = Boolean.parseBoolean(value);
+                    default -> {
+                        // 其余参数由压测程序处理
+                    }
+                }
+            }
+            return options;
+        }
+    }
+}
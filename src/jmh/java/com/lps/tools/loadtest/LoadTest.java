@@ -0,0 +1,181 @@
+package com.lps.tools.loadtest;
+
+import com.lps.tools.ToolsMsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * @author hhuang26
+ * @description 端到端压测：启动 FakeGitHubServer 和完整的服务（随机端口、临时存储目录），
+ * 对每个接口以固定并发持续请求一段时间，输出吞吐量、p50 / p90 / p99 / 最大延迟和失败数。
+ * 每个请求从 repos 个仓库中轮流选择一个，repos 越大缓存命中越少，首轮请求为冷启动。
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.lps.tools.loadtest.LoadTest -Djmh.args="--concurrency=16 --duration=30 --latency=80"
+ * <p>
+ * 参数：--concurrency、--duration（秒）、--warmup（秒）、--repos、--endpoints（逗号分隔），其余参数见 FakeGitHubServer.Options；
+ * 以 --tools. 开头的参数直接传给服务，如 --tools.github.rate-limit.permits-per-second=50
+ */
+public class LoadTest {
+
+    private static final String TOKEN = "load-test-token";
+    private static final String API_VERSION = "2022-11-28";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final int repos;
+
+    LoadTest(String baseUrl, int repos) {
+        this.baseUrl = baseUrl;
+        this.repos = repos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--tools.") || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                params.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        int concurrency = Integer.parseInt(params.getOrDefault("concurrency", "8"));
+        int duration = Integer.parseInt(params.getOrDefault("duration", "20"));
+        int warmup = Integer.parseInt(params.getOrDefault("warmup", "5"));
+        int repos = Integer.parseInt(params.getOrDefault("repos", "50"));
+        List<String> endpoints = Arrays.asList(params.getOrDefault("endpoints",
+                "analyze-controllers,deduplicated,project-overview,files").split(","));
+
+        FakeGitHubServer.Options options = FakeGitHubServer.Options.parse(args);
+        SyntheticRepository repository = new SyntheticRepository(options.controllers, options.methods, options.fillerFiles);
+        try (FakeGitHubServer github = new FakeGitHubServer(repository, options).start()) {
+            List<String> properties = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--tools.github.api-base-url=" + github.baseUrl(),
+                    "--tools.store.dir=" + Files.createTempDirectory("tools-load-test"),
+                    // 压测测的是服务本身，默认不让客户端速率限制成为瓶颈；需要时通过 --tools.github.rate-limit.* 覆盖
+                    "--tools.github.rate-limit.permits-per-second=100000",
+                    "--tools.github.rate-limit.burst=100000",
+                    "--logging.level.com.lps.tools=WARN"));
+            properties.addAll(appArgs);
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(ToolsMsApplication.class)
+                    .run(properties.toArray(new String[0]));
+            try {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                LoadTest loadTest = new LoadTest("http://127.0.0.1:" + port, repos);
+                System.out.printf("%n并发 %d，每个接口预热 %ds、测量 %ds，仓库数 %d，仓库文件数 %d%n",
+                        concurrency, warmup, duration, repos, repository.fileCount());
+                System.out.printf("%-22s %10s %10s %10s %10s %10s %10s %8s%n",
+                        "endpoint", "requests", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)", "errors");
+                for (String endpoint : endpoints) {
+                    IntFunction<String> url = loadTest.endpoint(endpoint.trim());
+                    loadTest.run(url, concurrency, warmup);
+                    Result result = loadTest.run(url, concurrency, duration);
+                    System.out.printf("%-22s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %8d%n", endpoint.trim(), result.requests(),
+                            result.throughput(), result.percentile(0.50), result.percentile(0.90), result.percentile(0.99),
+                            result.percentile(1.0), result.errors());
+                }
+                System.out.println("\n模拟 GitHub 服务请求数: " + github.stats());
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private IntFunction<String> endpoint(String name) {
+        String common = "token=" + TOKEN + "&githubApiVersion=" + API_VERSION;
+        return switch (name) {
+            case "analyze-controllers" -> i -> baseUrl + "/github/analyze-controllers?owner=load&repo=repo-" + (i % repos) + "&branch=main&" + common;
+            case "deduplicated" -> i -> baseUrl + "/github/analyze-controllers/deduplicated?owner=load&repo=repo-" + (i % repos) + "&branch=main&" + common;
+            case "project-overview" -> i -> baseUrl + "/github/project-overview?owner=load&repo=repo-" + (i % repos) + "&branch=main&" + common;
+            case "files" -> i -> baseUrl + "/github/files?owner=load&repo=repo-" + (i % repos) + "&branch=main&limit=1000&" + common;
+            default -> throw new IllegalArgumentException("未知接口: " + name);
+        };
+    }
+
+    /**
+     * 以 concurrency 个线程持续请求 seconds 秒，每个线程收到响应后立即发出下一个请求
+     */
+    private Result run(IntFunction<String> url, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<long[]>> workers = new ArrayList<>();
+            AtomicInteger errors = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int t = 0; t < concurrency; t++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url.apply(sequence.getAndIncrement())))
+                                .timeout(Duration.ofMinutes(5))
+                                .GET()
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            // 接口出错时返回 200 和空响应体（见 GithubInfoController），同样计为失败
+                            if (response.statusCode() != 200 || response.body().length == 0) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - begin;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> all = new ArrayList<>();
+            for (Future<long[]> worker : workers) {
+                all.add(worker.get());
+            }
+            long elapsed = System.nanoTime() - start;
+            long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(merged, elapsed, errors.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput() {
+            return sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.lps.tools.loadtest;
+
+import com.lps.tools.benchmark.SourceGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * @author hhuang26
+ * @description 由固定种子生成的 Spring Boot 项目：每个领域一个控制器及其引用的 DTO，另有 pom.xml、application.yml 等概览文件和若干无关文件。
+ * blob SHA 按 git 的方式计算（"blob {size}\0{content}" 的 SHA-1），目录树及 zipball 在构造时一次生成，之后只读共享
+ */
+public class SyntheticRepository {
+
+    private static final String[] DOMAINS = {"User", "Order", "Product", "Payment", "Invoice", "Account", "Tenant", "Report",
+            "Coupon", "Stock", "Refund", "Message", "Region", "Supplier", "Contract", "Audit"};
+
+    /**
+     * 路径 -> 文件内容，按路径排序，与 git 树的顺序一致
+     */
+    private final Map<String, byte[]> files = new TreeMap<>();
+    private final Map<String, String> blobShas = new HashMap<>();
+    private final Map<String, byte[]> blobsBySha = new HashMap<>();
+    /**
+     * 目录 SHA -> 该目录的直接子项，根目录的路径为 ""
+     */
+    private final Map<String, List<Entry>> trees = new HashMap<>();
+    private final Map<String, String> treeShas = new HashMap<>();
+    private byte[] zipball;
+
+    /**
+     * @param controllers 控制器数，每个控制器对应一个领域
+     * @param methods     每个控制器的接口数，每个接口引用一个 DTO
+     * @param fillerFiles 与分析无关的文件数（service、mapper 等），用于调节仓库树大小
+     */
+    public SyntheticRepository(int controllers, int methods, int fillerFiles) {
+        Random random = new Random(42);
+        for (int c = 0; c < controllers; c++) {
+            String domain = DOMAINS[c % DOMAINS.length] + (c < DOMAINS.length ? "" : String.valueOf(c / DOMAINS.length));
+            String pkg = "com/example/" + domain.toLowerCase();
+            add("src/main/java/" + pkg + "/controller/" + domain + "Controller.java",
+                    SourceGenerator.controller(random, domain, methods));
+            for (int m = 0; m < methods; m++) {
+                String dto = SourceGenerator.dtoName(domain, m);
+                add("src/main/java/" + pkg + "/dto/" + dto + ".java",
+                        SourceGenerator.dataClass(random, pkg.replace('/', '.') + ".dto", dto, 4 + random.nextInt(12)));
+            }
+        }
+        add("src/main/java/com/example/common/Result.java",
+                SourceGenerator.dataClass(random, "com.example.common", "Result", 3));
+        for (int i = 0; i < fillerFiles; i++) {
+            String domain = DOMAINS[i % DOMAINS.length].toLowerCase();
+            add("src/main/java/com/example/" + domain + "/service/impl/Filler" + i + "ServiceImpl.java",
+                    "package com.example." + domain + ".service.impl;\n\npublic class Filler" + i + "ServiceImpl {\n}\n");
+        }
+        add("pom.xml", "<project>\n  <groupId>com.example</groupId>\n  <artifactId>synthetic</artifactId>\n  <version>1.0.0</version>\n</project>\n");
+        add("src/main/resources/application.yml", "server:\n  port: 8080\nspring:\n  application:\n    name: synthetic\n");
+        add("src/main/resources/logback-spring.xml", "<configuration>\n  <root level=\"INFO\"/>\n</configuration>\n");
+        add("src/main/java/com/example/Application.java",
+                "package com.example;\n\n@SpringBootApplication\npublic class Application {\n    public static void main(String[] args) {\n"
+                        + "        SpringApplication.run(Application.class, args);\n    }\n}\n");
+        buildTrees();
+        zipball = buildZip();
+    }
+
+    public int fileCount() {
+        return files.size();
+    }
+
+    public byte[] blob(String sha) {
+        return blobsBySha.get(sha);
+    }
+
+    public byte[] file(String path) {
+        return files.get(path);
+    }
+
+    public String blobSha(String path) {
+        return blobShas.get(path);
+    }
+
+    public String rootTreeSha() {
+        return treeShas.get("");
+    }
+
+    public boolean isTree(String sha) {
+        return trees.containsKey(sha);
+    }
+
+    public byte[] zipball() {
+        return zipball;
+    }
+
+    /**
+     * 目录的直接子项，path 为相对仓库根目录的目录路径（根目录为 ""），不是目录时返回 null
+     */
+    public List<Entry> directory(String path) {
+        String sha = treeShas.get(path);
+        return sha == null ? null : trees.get(sha);
+    }
+
+    /**
+     * 仓库树：recursive 时返回全部子项（路径相对该目录），否则只返回直接子项
+     */
+    public List<Entry> tree(String sha, boolean recursive) {
+        List<Entry> children = trees.get(sha);
+        if (children == null || !recursive) {
+            return children;
+        }
+        List<Entry> all = new ArrayList<>();
+        collect(children, "", all);
+        return all;
+    }
+
+    private void collect(List<Entry> children, String prefix, List<Entry> out) {
+        for (Entry child : children) {
+            String path = prefix.isEmpty() ? child.path() : prefix + "/" + child.path();
+            out.add(new Entry(path, child.type(), child.sha(), child.size()));
+            if ("tree".equals(child.type())) {
+                collect(trees.get(child.sha()), path, out);
+            }
+        }
+    }
+
+    private void add(String path, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String sha = sha1(("blob " + bytes.length + "\0").getBytes(StandardCharsets.UTF_8), bytes);
+        files.put(path, bytes);
+        blobShas.put(path, sha);
+        blobsBySha.put(sha, bytes);
+    }
+
+    // 按目录分组，目录 SHA 由目录路径及子项计算，内容不变时保持不变
+    private void buildTrees() {
+        Map<String, Map<String, Entry>> children = new TreeMap<>();
+        TreeSet<String> directories = new TreeSet<>();
+        directories.add("");
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String path = file.getKey();
+            int slash = path.lastIndexOf('/');
+            String dir = slash < 0 ? "" : path.substring(0, slash);
+            children.computeIfAbsent(dir, key -> new TreeMap<>())
+                    .put(path.substring(slash + 1), new Entry(path.substring(slash + 1), "blob", blobShas.get(path), file.getValue().length));
+            while (!dir.isEmpty() && directories.add(dir)) {
+                slash = dir.lastIndexOf('/');
+                dir = slash < 0 ? "" : dir.substring(0, slash);
+            }
+        }
+        // 先计算最深的目录，父目录的子项才能引用子目录的 SHA
+        for (String dir : directories.descendingSet()) {
+            Map<String, Entry> entries = children.computeIfAbsent(dir, key -> new TreeMap<>());
+            StringBuilder digest = new StringBuilder(dir);
+            entries.values().forEach(entry -> digest.append('\n').append(entry.sha()).append(' ').append(entry.path()));
+            String sha = sha1(("tree " + digest).getBytes(StandardCharsets.UTF_8));
+            treeShas.put(dir, sha);
+            trees.put(sha, new ArrayList<>(entries.values()));
+            if (!dir.isEmpty()) {
+                int slash = dir.lastIndexOf('/');
+                String parent = slash < 0 ? "" : dir.substring(0, slash);
+                String name = dir.substring(slash + 1);
+                children.computeIfAbsent(parent, key -> new TreeMap<>()).put(name, new Entry(name, "tree", sha, 0));
+            }
+        }
+    }
+
+    // zipball 中的条目位于 "{owner}-{repo}-{shortSha}/" 目录下，这里统一使用 "synthetic-repo/"
+    private byte[] buildZip() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry("synthetic-repo/" + file.getKey()));
+                zip.write(file.getValue());
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String sha1(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (byte[] part : parts) {
+                digest.update(part);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 仓库树中的一项，path 为相对所在目录（或 recursive 请求的起始目录）的路径
+     */
+    public record Entry(String path, String type, String sha, int size) {
+    }
+}
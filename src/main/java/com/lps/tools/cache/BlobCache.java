@@ -0,0 +1,79 @@
+package com.lps.tools.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lps.tools.store.DiskBlobStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @author hhuang26
+ * @description 以 git blob SHA 为键的文件内容缓存。
+ * 同一 SHA 的内容在任何仓库、分支下都相同，因此可跨请求共享；按字节加权做 W-TinyLFU 淘汰，读操作无锁。
+ * 启用磁盘存储时，内存未命中会再查磁盘，写入时同时落盘，重启后仍可命中。
+ */
+@Component
+public class BlobCache {
+
+    private final Cache<String, String> cache;
+
+    /**
+     * 磁盘二级缓存，未启用时为 null
+     */
+    private final DiskBlobStore diskStore;
+
+    public BlobCache(@Value("${tools.cache.blob.max-bytes:268435456}") long maxBytes,
+                     @Value("${tools.cache.blob.expire-after-access:6h}") Duration expireAfterAccess,
+                     ObjectProvider<DiskBlobStore> diskStore) {
+        this.diskStore = diskStore.getIfAvailable();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                // String 内部按 UTF-16 估算，每个字符 2 字节
+                .weigher((String sha, String content) -> sha.length() + content.length() * 2)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 按 SHA 读取，未命中返回 null
+     */
+    public String get(String sha) {
+        if (sha == null) {
+            return null;
+        }
+        String content = cache.getIfPresent(sha);
+        if (content == null && diskStore != null) {
+            content = diskStore.get(sha);
+            if (content != null) {
+                cache.put(sha, content);
+            }
+        }
+        return content;
+    }
+
+    public void put(String sha, String content) {
+        if (sha == null || content == null) {
+            return;
+        }
+        cache.put(sha, content);
+        if (diskStore != null) {
+            diskStore.put(sha, content);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 命中、未命中、淘汰等统计信息
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
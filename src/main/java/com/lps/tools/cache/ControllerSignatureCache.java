@@ -0,0 +1,36 @@
+package com.lps.tools.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lps.tools.model.ControllerSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * @author hhuang26
+ * @description 以 blob SHA 为键缓存控制器的方法签名摘要，重新分析同一仓库时未变化的控制器不再解析
+ */
+@Component
+public class ControllerSignatureCache {
+
+    private final Cache<String, ControllerSignature> cache;
+
+    public ControllerSignatureCache(@Value("${tools.cache.controller-signature.max-size:100000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 按 SHA 获取摘要，未命中时调用 loader 解析；SHA 未知时不缓存。loader 返回 null（解析失败）时不缓存
+     */
+    public ControllerSignature get(String sha, Function<String, ControllerSignature> loader) {
+        if (sha == null) {
+            return loader.apply(null);
+        }
+        return cache.get(sha, loader);
+    }
+}
@@ -0,0 +1,36 @@
+package com.lps.tools.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lps.tools.model.TypeSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * @author hhuang26
+ * @description 以 blob SHA 为键缓存数据类的解析摘要，同一内容的 DTO 只解析一次
+ */
+@Component
+public class TypeSummaryCache {
+
+    private final Cache<String, TypeSummary> cache;
+
+    public TypeSummaryCache(@Value("${tools.cache.type-summary.max-size:100000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 按 SHA 获取摘要，未命中时调用 loader 解析；SHA 未知时不缓存
+     */
+    public TypeSummary get(String sha, Function<String, TypeSummary> loader) {
+        if (sha == null) {
+            return loader.apply(null);
+        }
+        return cache.get(sha, loader);
+    }
+}
@@ -0,0 +1,61 @@
+package com.lps.tools.config;
+
+import com.lps.tools.model.GitHubRequestInfo;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * @author hhuang26
+ * @description 共享 WebClient 的认证过滤器：从请求属性中读取 token 和 API 版本并写入请求头，
+ * 使同一个 WebClient 实例可以服务不同用户的请求，不需要为每个请求重新构建客户端
+ */
+public class GitHubAuthExchangeFilter implements ExchangeFilterFunction {
+
+    private static final String TOKEN_ATTRIBUTE = GitHubAuthExchangeFilter.class.getName() + ".token";
+    private static final String VERSION_ATTRIBUTE = GitHubAuthExchangeFilter.class.getName() + ".version";
+
+    /**
+     * 用法：webClient.get().uri(...).attributes(GitHubAuthExchangeFilter.credentials(info))
+     */
+    public static Consumer<Map<String, Object>> credentials(GitHubRequestInfo info) {
+        return credentials(info.getToken(), info.getGithubApiVersion());
+    }
+
+    public static Consumer<Map<String, Object>> credentials(String token, String githubApiVersion) {
+        return attributes -> {
+            if (token != null) {
+                attributes.put(TOKEN_ATTRIBUTE, token);
+            }
+            if (githubApiVersion != null) {
+                attributes.put(VERSION_ATTRIBUTE, githubApiVersion);
+            }
+        };
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        Object token = request.attributes().get(TOKEN_ATTRIBUTE);
+        Object version = request.attributes().get(VERSION_ATTRIBUTE);
+        if (token == null && version == null) {
+            return next.exchange(request);
+        }
+        ClientRequest authorized = ClientRequest.from(request)
+                .headers(headers -> {
+                    if (token != null) {
+                        headers.setBearerAuth(token.toString());
+                    }
+                    if (version != null) {
+                        headers.set("X-GitHub-Api-Version", version.toString());
+                    }
+                })
+                .build();
+        return next.exchange(authorized);
+    }
+}
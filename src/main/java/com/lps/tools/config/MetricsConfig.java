@@ -0,0 +1,27 @@
+package com.lps.tools.config;
+
+import com.lps.tools.metrics.RequestTimingInterceptor;
+import com.lps.tools.metrics.StageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * @author hhuang26
+ * @description 阶段计时使用容器中的 MeterRegistry（经 /actuator/prometheus 暴露），并为每个请求记录各阶段耗时
+ */
+@Configuration
+class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        StageTimer.setMeterRegistry(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestTimingInterceptor()).addPathPatterns("/github/**");
+    }
+}
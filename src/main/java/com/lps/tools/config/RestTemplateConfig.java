@@ -1,14 +1,19 @@
 package com.lps.tools.config;
 
+import com.lps.tools.ratelimit.GitHubRateLimiter;
+import com.lps.tools.ratelimit.RateLimitInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpComponentsClientHttpRequestFactory pooledRequestFactory, GitHubRateLimiter rateLimiter) {
+        RestTemplate restTemplate = new RestTemplate(pooledRequestFactory);
+        restTemplate.getInterceptors().add(new RateLimitInterceptor(rateLimiter));
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,14 @@
 package com.lps.tools.config;
 
+import com.lps.tools.ratelimit.GitHubRateLimiter;
+import com.lps.tools.ratelimit.RateLimitExchangeFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
@@ -13,17 +19,45 @@ import java.time.Duration;
  */
 @Configuration
 class WebClientConfig {
+
+    @Value("${tools.github.api-base-url:https://api.github.com}")
+    private String apiBaseUrl;
+
+    @Value("${tools.http.webclient.max-in-memory-size:16MB}")
+    private DataSize maxInMemorySize;
+
+    @Value("${tools.http.webclient.max-header-size:16KB}")
+    private DataSize maxHeaderSize;
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
+    public WebClient.Builder webClientBuilder(GitHubRateLimiter rateLimiter) {
         ConnectionProvider provider = ConnectionProvider.builder("fixed")
                 .maxConnections(5000) // 增加最大连接数
                 .pendingAcquireMaxCount(20000) // 增加待处理获取队列大小
                 .build();
 
         HttpClient httpClient = HttpClient.create(provider)
+                .compress(true) // 接受 gzip 响应
+                .httpResponseDecoder(spec -> spec.maxHeaderSize((int) maxHeaderSize.toBytes()))
                 .responseTimeout(Duration.ofMillis(300000)); // 设置响应超时时间为5分钟
 
         return WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient));
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // 限制单个响应体在内存中聚合的大小，超出时报 DataBufferLimitException 而不是耗尽内存
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .filter(new RateLimitExchangeFilter(rateLimiter));
+    }
+
+    /**
+     * GitHub API 共享客户端，token 通过请求属性传入（见 GitHubAuthExchangeFilter）。
+     * 认证过滤器放在最外层，速率调度过滤器才能按 token 统计
+     */
+    @Bean
+    public WebClient githubWebClient(WebClient.Builder webClientBuilder) {
+        return webClientBuilder.clone()
+                .baseUrl(apiBaseUrl)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .filters(filters -> filters.add(0, new GitHubAuthExchangeFilter()))
+                .build();
     }
-}
\ No newline at end of file
+}
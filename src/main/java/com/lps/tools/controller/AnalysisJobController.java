@@ -0,0 +1,79 @@
+package com.lps.tools.controller;
+
+import com.lps.tools.job.AnalysisJobService;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.JobResultPage;
+import com.lps.tools.model.JobStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @author hhuang26
+ * @description 异步分析任务接口：提交任务、查询进度、订阅进度、分页获取结果、取消任务
+ */
+@RestController
+@RequestMapping("/github/jobs")
+public class AnalysisJobController {
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    /**
+     * 提交控制器分析任务，返回 202 及任务状态；队列已满时返回 429
+     * @param request owner、repo、branch、token、githubApiVersion
+     * @return
+     */
+    @PostMapping
+    public ResponseEntity<JobStatus> submit(@RequestBody GitHubRequestInfo request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(analysisJobService.submit(request));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "分析任务队列已满");
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public JobStatus status(@PathVariable String jobId) {
+        return required(analysisJobService.status(jobId));
+    }
+
+    /**
+     * 以 SSE / NDJSON 流的方式每秒推送一次任务状态，任务结束后关闭
+     * @param jobId
+     * @return
+     */
+    @GetMapping(value = "/{jobId}/events", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<JobStatus> events(@PathVariable String jobId) {
+        required(analysisJobService.status(jobId));
+        return Flux.interval(Duration.ZERO, Duration.ofSeconds(1))
+                .map(tick -> analysisJobService.status(jobId))
+                .takeUntil(status -> status == null || status.getState().isFinished());
+    }
+
+    @GetMapping("/{jobId}/results")
+    public JobResultPage results(@PathVariable String jobId,
+                                 @RequestParam(required = false, defaultValue = "0") int offset,
+                                 @RequestParam(required = false, defaultValue = "50") int limit) {
+        return required(analysisJobService.results(jobId, offset, limit));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public JobStatus cancel(@PathVariable String jobId) {
+        return required(analysisJobService.cancel(jobId));
+    }
+
+    private static <T> T required(T value) {
+        if (value == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "任务不存在或已过期");
+        }
+        return value;
+    }
+}
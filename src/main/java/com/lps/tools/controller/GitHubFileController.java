@@ -1,66 +1,57 @@
 package com.lps.tools.controller;
 
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.service.RepoFileService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriBuilder;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 public class GitHubFileController {
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    private RepoFileService repoFileService;
 
+    /**
+     * 仓库文件下载地址列表，offset / limit 用于分页（默认返回全部）；offset 为负数或 limit 不大于 0 时返回 400
+     */
     @GetMapping("/github/files")
     public Mono<List<String>> getGitHubFiles(
             @RequestParam String owner,
             @RequestParam String repo,
             @RequestParam String token,
             @RequestParam String githubApiVersion,
-            @RequestParam(required = false, defaultValue = "main") String branch) {
-
-        WebClient webClient = webClientBuilder
-                .baseUrl("https://api.github.com")
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader("X-GitHub-Api-Version", githubApiVersion)
-                .build();
-
-        return fetchFilesRecursively(webClient, owner, repo, branch, "").collectList();
+            @RequestParam(required = false, defaultValue = "main") String branch,
+            @RequestParam(required = false, defaultValue = "0") long offset,
+            @RequestParam(required = false, defaultValue = "" + Long.MAX_VALUE) long limit) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset 不能为负数");
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 必须大于 0");
+        }
+        GitHubRequestInfo info = new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion);
+        return repoFileService.listDownloadUrls(info).skip(offset).take(limit).collectList();
     }
 
-    private Flux<String> fetchFilesRecursively(WebClient webClient, String owner, String repo, String branch, String path) {
-        return webClient.get()
-                .uri(uriBuilder -> {
-                    UriBuilder builder = uriBuilder
-                            .path("/repos/{owner}/{repo}/contents/{path}")
-                            .queryParam("ref", branch);
-                    return path.isEmpty()
-                            ? builder.build(owner, repo, "")
-                            : builder.build(owner, repo, path);
-                })
-                .retrieve()
-                .bodyToMono(Map[].class)
-                .flatMapMany(Flux::fromArray)
-                .flatMap(file -> {
-                    String type = (String) file.get("type");
-                    String filePath = (String) file.get("path");
-                    if ("file".equals(type)) {
-                        return Mono.just((String) file.get("download_url"));
-                    } else if ("dir".equals(type)) {
-                        return fetchFilesRecursively(webClient, owner, repo, branch, filePath);
-                    } else {
-                        return Mono.empty();
-                    }
-                });
+    /**
+     * 以 NDJSON / SSE 流的方式逐个返回文件下载地址
+     */
+    @GetMapping(value = "/github/files/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<String> streamGitHubFiles(
+            @RequestParam String owner,
+            @RequestParam String repo,
+            @RequestParam String token,
+            @RequestParam String githubApiVersion,
+            @RequestParam(required = false, defaultValue = "main") String branch) {
+        return repoFileService.listDownloadUrls(new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion));
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,39 @@
 package com.lps.tools.controller;
 
+import com.lps.tools.config.HttpClientConfig;
 import com.lps.tools.model.GitHubRequestInfo;
 import com.lps.tools.model.ProjectOverviewResult;
 import com.lps.tools.model.ApiMdRequest;
+import com.lps.tools.model.CacheStatsResult;
+import com.lps.tools.model.ControllerResult;
+import com.lps.tools.model.DeduplicatedAnalysisResult;
+import com.lps.tools.model.HttpPoolStats;
+import com.lps.tools.model.PipelineStats;
+import com.lps.tools.model.RateLimitStats;
+import com.lps.tools.model.RepoAnalysisResult;
+import com.lps.tools.model.RevalidationStats;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lps.tools.service.BatchAnalysisService;
 import com.lps.tools.service.GithubService;
 import com.lps.tools.service.MarkdownFixerService;
+import com.lps.tools.util.HttpUtil;
+import com.lps.tools.ratelimit.GitHubRateLimiter;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -17,6 +42,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/github")
 public class GithubInfoController {
+    private static final Logger logger = LoggerFactory.getLogger(GithubInfoController.class);
 
     @Autowired
     private GithubService githubService;
@@ -24,6 +50,18 @@ public class GithubInfoController {
     @Autowired
     private MarkdownFixerService markdownFixerService;
 
+    @Autowired
+    private BatchAnalysisService batchAnalysisService;
+
+    @Autowired
+    private GitHubRateLimiter rateLimiter;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager httpConnectionManager;
+
+    @Autowired
+    private HttpUtil httpUtil;
+
     /**
      * 获取API文档相关代码（controller、entity）
      * @param owner
@@ -39,17 +77,75 @@ public class GithubInfoController {
             @RequestParam String repo,
             @RequestParam String branch,
             @RequestParam String token,
-            @RequestParam String githubApiVersion) {
+            @RequestParam String githubApiVersion) throws RateLimitExceededException {
         HttpHeaders headers = new HttpHeaders();
         try {
 
             return githubService.analyzeControllers(new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion), headers);
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("分析控制器失败: {}/{}@{}", owner, repo, branch, e);
             return null;
         }
     }
 
+    /**
+     * 获取API文档相关代码（去重模式）：每个数据类只输出一次，控制器按 ID 引用，metadata 中给出节省的字节数和 token 数
+     * @param owner
+     * @param repo
+     * @param branch
+     * @param token
+     * @param githubApiVersion
+     * @return
+     */
+    @GetMapping("/analyze-controllers/deduplicated")
+    public DeduplicatedAnalysisResult analyzeControllersDeduplicated(
+            @RequestParam String owner,
+            @RequestParam String repo,
+            @RequestParam String branch,
+            @RequestParam String token,
+            @RequestParam String githubApiVersion) throws RateLimitExceededException {
+        HttpHeaders headers = new HttpHeaders();
+        try {
+            return githubService.analyzeControllersDeduplicated(new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion), headers);
+        } catch (RateLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("分析控制器（去重模式）失败: {}/{}@{}", owner, repo, branch, e);
+            return null;
+        }
+    }
+
+    /**
+     * 流式获取API文档相关代码，每个控制器分析完成即输出一条（NDJSON 或 SSE，由 Accept 决定）
+     * @param owner
+     * @param repo
+     * @param branch
+     * @param token
+     * @param githubApiVersion
+     * @return
+     */
+    @GetMapping(value = "/analyze-controllers/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ControllerResult> streamControllers(
+            @RequestParam String owner,
+            @RequestParam String repo,
+            @RequestParam String branch,
+            @RequestParam String token,
+            @RequestParam String githubApiVersion) {
+        return githubService.streamControllers(new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion), new HttpHeaders());
+    }
+
+    /**
+     * 批量分析多个仓库，所有仓库共享同一条流水线及缓存，每个仓库完成后立即以 NDJSON / SSE 输出该仓库的结果
+     * @param requests 各仓库的 owner、repo、branch、token、githubApiVersion
+     * @return
+     */
+    @PostMapping(value = "/analyze-controllers/batch", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<RepoAnalysisResult> analyzeRepositories(@RequestBody List<GitHubRequestInfo> requests) {
+        return batchAnalysisService.analyzeRepositories(requests);
+    }
+
     /**
      * 获取项目概览相关代码（controller、pom.xml、application.yml、Application.java、logback-spring.xml）
      * @param owner
@@ -65,19 +161,99 @@ public class GithubInfoController {
             @RequestParam String repo,
             @RequestParam String branch,
             @RequestParam String token,
-            @RequestParam String githubApiVersion) {
+            @RequestParam String githubApiVersion) throws RateLimitExceededException {
         HttpHeaders headers = new HttpHeaders();
         try {
             return githubService.analyzeProjectOverview(new GitHubRequestInfo(owner, repo, branch, token, githubApiVersion), headers);
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("获取项目概览失败: {}/{}@{}", owner, repo, branch, e);
             return null;
         }
     }
 
+    /**
+     * 查看 blob 缓存的命中率与淘汰统计
+     * @return
+     */
+    @GetMapping("/cache/stats")
+    public CacheStatsResult cacheStats() {
+        CacheStats stats = githubService.getBlobCacheStats();
+        return new CacheStatsResult(githubService.getBlobCacheSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), stats.evictionWeight());
+    }
+
+    /**
+     * 查看分析流水线各阶段的并发度与队列深度
+     * @return
+     */
+    @GetMapping("/pipeline/stats")
+    public PipelineStats pipelineStats() {
+        return githubService.getPipelineStats();
+    }
+
+    /**
+     * 查看条件请求（ETag 重新验证）的命中率
+     * @return
+     */
+    @GetMapping("/http/stats")
+    public RevalidationStats httpStats() {
+        return httpUtil.revalidationStats();
+    }
+
+    /**
+     * 查看 HTTP 连接池的使用情况（使用中、等待中、空闲的连接数）
+     * @return
+     */
+    @GetMapping("/http/pool/stats")
+    public HttpPoolStats httpPoolStats() {
+        return HttpClientConfig.poolStats(httpConnectionManager);
+    }
+
+    /**
+     * 查看各 token 的 GitHub 剩余配额、重置时间及限流等待情况
+     * @return
+     */
+    @GetMapping("/rate-limit/stats")
+    public List<RateLimitStats> rateLimitStats() {
+        return rateLimiter.stats();
+    }
+
+    /**
+     * GitHub 速率配额不足时返回 429，Retry-After 及响应体给出配额重置时间
+     * @param e
+     * @return
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> rateLimitExceeded(RateLimitExceededException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAt() - System.currentTimeMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(e.getMessage() + "，预计 " + Instant.ofEpochMilli(e.getRetryAt()) + " 后可重试");
+    }
+
+    /**
+     * @param sorted true 时按 URL + 请求方法去重，目录按路径前缀分组排序，输出与各条输出的到达顺序无关
+     */
     @PostMapping("/fix-markdown")
-    public String fixMarkdown(@RequestBody ApiMdRequest request) throws Exception {
+    public String fixMarkdown(@RequestBody ApiMdRequest request,
+                              @RequestParam(defaultValue = "false") boolean sorted) throws Exception {
         // 调用 MarkdownFixer 处理入参，将处理后的结果转换为字符串并返回
-        return markdownFixerService.subMdToStr(request.getOutput());
+        return markdownFixerService.subMdToStr(request.getOutput(), sorted);
+    }
+
+    /**
+     * 与 /fix-markdown 相同，请求体 {"output": [...]} 以流的方式读取，结果直接写入响应流，适用于接口数很多的大文档
+     * @param request
+     * @param response
+     * @param sorted 同 /fix-markdown
+     * @throws IOException
+     */
+    @PostMapping(value = "/fix-markdown/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void fixMarkdownStream(HttpServletRequest request, HttpServletResponse response,
+                                  @RequestParam(defaultValue = "false") boolean sorted) throws IOException {
+        response.setContentType("text/markdown;charset=UTF-8");
+        markdownFixerService.writeMarkdown(request.getInputStream(), response.getWriter(), sorted);
     }
 }
\ No newline at end of file
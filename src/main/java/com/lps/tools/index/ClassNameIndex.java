@@ -0,0 +1,150 @@
+package com.lps.tools.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author hhuang26
+ * @description 数据类类名索引，每棵仓库树构建一次。
+ * 匹配规则：先精确匹配类名；否则在类名（忽略大小写）中做子串匹配，多个候选时取最短、再按字典序最小的类名，结果确定。
+ * 子串匹配通过三元组倒排表缩小候选范围，查询结果会被缓存。
+ */
+public class ClassNameIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 类名 -> 路径
+     */
+    private final Map<String, String> exact;
+
+    /**
+     * 按（长度、字典序）排序后的类名及其小写形式，下标即类名 ID，ID 越小优先级越高
+     */
+    private final String[] names;
+    private final String[] lowerNames;
+
+    /**
+     * 小写类名 -> 最小 ID
+     */
+    private final Map<String, Integer> lowerIds = new HashMap<>();
+
+    /**
+     * 三元组 -> 包含该三元组的类名 ID（升序）
+     */
+    private final Map<Long, int[]> trigrams = new HashMap<>();
+
+    /**
+     * 查询结果缓存
+     */
+    private final Map<String, Optional<String>> memo = new ConcurrentHashMap<>();
+
+    public ClassNameIndex(Map<String, String> dataClasses) {
+        this.exact = dataClasses;
+        this.names = dataClasses.keySet().stream()
+                .sorted(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()))
+                .toArray(String[]::new);
+        this.lowerNames = new String[names.length];
+
+        // 倒排表末尾记录当前长度，避免装箱
+        Map<Long, int[]> postings = new HashMap<>();
+        for (int id = 0; id < names.length; id++) {
+            String lower = names[id].toLowerCase(Locale.ROOT);
+            lowerNames[id] = lower;
+            lowerIds.putIfAbsent(lower, id);
+            for (int i = 0; i + 3 <= lower.length(); i++) {
+                Long key = trigram(lower, i);
+                int[] ids = postings.get(key);
+                if (ids == null) {
+                    ids = new int[4];
+                    postings.put(key, ids);
+                }
+                int count = ids[ids.length - 1];
+                // 同一类名内重复的三元组只记录一次
+                if (count > 0 && ids[count - 1] == id) {
+                    continue;
+                }
+                if (count + 1 == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    postings.put(key, ids);
+                }
+                ids[count] = id;
+                ids[ids.length - 1] = count + 1;
+            }
+        }
+        postings.forEach((key, ids) -> trigrams.put(key, Arrays.copyOf(ids, ids[ids.length - 1])));
+    }
+
+    /**
+     * 查找类名对应的文件路径，找不到返回 null
+     */
+    public String find(String className) {
+        if (className == null) {
+            return null;
+        }
+        String path = exact.get(className);
+        if (path != null) {
+            return path;
+        }
+        return memo.computeIfAbsent(className, key -> Optional.ofNullable(findContaining(key))).orElse(null);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private String findContaining(String className) {
+        String query = className.toLowerCase(Locale.ROOT);
+        Integer id = lowerIds.get(query);
+        if (id != null) {
+            // 与查询等长的类名一定是最短候选
+            return exact.get(names[id]);
+        }
+        if (query.length() < 3) {
+            return scan(query);
+        }
+
+        // 取最短的倒排表作为候选，按 ID 升序校验，第一个命中即为结果
+        int[] candidates = null;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            int[] ids = trigrams.getOrDefault(trigram(query, i), EMPTY);
+            if (candidates == null || ids.length < candidates.length) {
+                candidates = ids;
+            }
+            if (candidates.length == 0) {
+                return null;
+            }
+        }
+        for (int candidate : candidates) {
+            if (lowerNames[candidate].contains(query)) {
+                return exact.get(names[candidate]);
+            }
+        }
+        return null;
+    }
+
+    // 查询过短无法使用三元组时顺序扫描
+    private String scan(String query) {
+        for (int id = 0; id < lowerNames.length; id++) {
+            if (lowerNames[id].contains(query)) {
+                return exact.get(names[id]);
+            }
+        }
+        return null;
+    }
+
+    // 每个字符占 21 位，保证 Long.hashCode 的高低位异或后仍能区分三个字符
+    private static long trigram(String s, int offset) {
+        return ((long) s.charAt(offset) << 42) | ((long) s.charAt(offset + 1) << 21) | s.charAt(offset + 2);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassNameIndex{size=" + names.length + ", trigrams=" + trigrams.size() + "}";
+    }
+}
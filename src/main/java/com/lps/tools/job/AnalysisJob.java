@@ -0,0 +1,115 @@
+package com.lps.tools.job;
+
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.JobState;
+import com.lps.tools.model.JobStatus;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * @author hhuang26
+ * @description 一个异步分析任务，状态由工作线程更新、由查询接口读取
+ */
+public class AnalysisJob {
+
+    private final String id;
+    private final GitHubRequestInfo request;
+    private final AnalysisProgress progress = new AnalysisProgress();
+    private final long submittedAt = System.currentTimeMillis();
+
+    private volatile JobState state = JobState.QUEUED;
+    private volatile List<String> results;
+    private volatile String error;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile Future<?> future;
+
+    AnalysisJob(String id, GitHubRequestInfo request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobState getState() {
+        return state;
+    }
+
+    public List<String> getResults() {
+        return results;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    GitHubRequestInfo getRequest() {
+        return request;
+    }
+
+    AnalysisProgress getProgress() {
+        return progress;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * 只有排队中的任务可以开始，已取消的任务出队后直接跳过
+     */
+    synchronized boolean start() {
+        if (state != JobState.QUEUED) {
+            return false;
+        }
+        state = JobState.RUNNING;
+        startedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    synchronized void succeed(List<String> results) {
+        if (state == JobState.RUNNING) {
+            this.results = results;
+            finish(JobState.SUCCEEDED);
+        }
+    }
+
+    synchronized void fail(String error) {
+        if (state == JobState.RUNNING) {
+            this.error = error;
+            finish(JobState.FAILED);
+        }
+    }
+
+    /**
+     * 取消任务：排队中的任务不再执行；运行中的任务不中断工作线程（避免中断正在读写结果存储的线程），
+     * 流水线各阶段在开始处理下一个条目前退出
+     */
+    synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        progress.cancel();
+        if (future != null) {
+            future.cancel(false);
+        }
+        finish(JobState.CANCELLED);
+        return true;
+    }
+
+    private void finish(JobState finalState) {
+        state = finalState;
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public JobStatus status() {
+        List<String> current = results;
+        return new JobStatus(id, request.getOwner(), request.getRepo(), request.getBranch(), state,
+                progress.getControllers(), progress.getReused(), progress.getFetched(), progress.getParsed(),
+                progress.getResolved(), progress.getDtosResolved(), current == null ? 0 : current.size(), error,
+                submittedAt, startedAt, finishedAt);
+    }
+}
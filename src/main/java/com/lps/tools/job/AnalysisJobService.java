@@ -0,0 +1,144 @@
+package com.lps.tools.job;
+
+import com.lps.tools.metrics.RequestTiming;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.JobResultPage;
+import com.lps.tools.model.JobStatus;
+import com.lps.tools.service.GithubService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hhuang26
+ * @description 异步分析任务：提交后立即返回任务 ID，由固定大小的工作线程池执行，排队数受 queueCapacity 限制。
+ * 分析过程中 HTTP 连接不被占用，调用方轮询状态或订阅进度，完成后分页获取结果；结束的任务保留 retention 后清除
+ */
+@Service
+public class AnalysisJobService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    @Autowired
+    private GithubService githubService;
+
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final Duration retention;
+
+    public AnalysisJobService(@Value("${tools.jobs.workers:2}") int workerCount,
+                              @Value("${tools.jobs.queue-capacity:32}") int queueCapacity,
+                              @Value("${tools.jobs.retention:1h}") Duration retention) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "analysis-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        this.retention = retention;
+    }
+
+    /**
+     * 提交分析任务，队列已满时抛出 RejectedExecutionException
+     */
+    public JobStatus submit(GitHubRequestInfo request) {
+        purgeExpired();
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), request);
+        jobs.put(job.getId(), job);
+        try {
+            // 先登记再提交，任务开始前即可查询；future 在 start 之前设置，保证取消能中断工作线程
+            synchronized (job) {
+                job.setFuture(workers.submit(() -> run(job)));
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        logger.info("提交分析任务 {}: {}/{}@{}", job.getId(), request.getOwner(), request.getRepo(), request.getBranch());
+        return job.status();
+    }
+
+    public JobStatus status(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        return job == null ? null : job.status();
+    }
+
+    /**
+     * 分页获取结果，任务未成功结束时 items 为空
+     */
+    public JobResultPage results(String jobId, int offset, int limit) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        List<String> results = job.getResults();
+        if (results == null) {
+            return new JobResultPage(jobId, job.getState(), offset, limit, 0, Collections.emptyList());
+        }
+        int from = Math.min(Math.max(offset, 0), results.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), results.size());
+        return new JobResultPage(jobId, job.getState(), from, limit, results.size(), results.subList(from, to));
+    }
+
+    public JobStatus cancel(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        if (job.cancel()) {
+            logger.info("取消分析任务 {}", jobId);
+        }
+        return job.status();
+    }
+
+    private void run(AnalysisJob job) {
+        if (!job.start()) {
+            return;
+        }
+        AnalysisProgress progress = job.getProgress();
+        RequestTiming.bind(new RequestTiming("job"));
+        try {
+            job.succeed(githubService.analyzeControllers(job.getRequest(), new HttpHeaders(), progress));
+        } catch (CancellationException e) {
+            logger.info("分析任务 {} 已取消", job.getId());
+        } catch (Exception e) {
+            if (progress.isCancelled()) {
+                logger.info("分析任务 {} 已取消", job.getId());
+            } else {
+                logger.error("分析任务 {} 失败: {}", job.getId(), e.getMessage());
+                job.fail(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            }
+        } finally {
+            RequestTiming.bind(null);
+        }
+    }
+
+    private void purgeExpired() {
+        long expireBefore = System.currentTimeMillis() - retention.toMillis();
+        jobs.values().removeIf(job -> job.getState().isFinished() && job.getFinishedAt() < expireBefore);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+package com.lps.tools.job;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hhuang26
+ * @description 一次分析的进度计数，由流水线各阶段在条目处理完成后更新；同时作为取消标记，各阶段开始处理条目前检查，取消后不再发起新的请求
+ */
+public class AnalysisProgress {
+
+    private final AtomicInteger controllers = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final AtomicInteger dtosResolved = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    /**
+     * 需要处理的控制器总数（增量分析中包含复用的控制器）
+     */
+    public void controllers(int count) {
+        controllers.set(count);
+    }
+
+    public void reused(int count) {
+        reused.set(count);
+    }
+
+    public <T> T fetched(T analysis) {
+        fetched.incrementAndGet();
+        return analysis;
+    }
+
+    public <T> T parsed(T analysis) {
+        parsed.incrementAndGet();
+        return analysis;
+    }
+
+    public void resolved(int dtoCount) {
+        resolved.incrementAndGet();
+        dtosResolved.addAndGet(dtoCount);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 已取消时抛出 CancellationException，用于阶段开始前及结果保存前检查
+     */
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("分析已取消");
+        }
+    }
+
+    public int getControllers() {
+        return controllers.get();
+    }
+
+    public int getReused() {
+        return reused.get();
+    }
+
+    public int getFetched() {
+        return fetched.get();
+    }
+
+    public int getParsed() {
+        return parsed.get();
+    }
+
+    public int getResolved() {
+        return resolved.get();
+    }
+
+    public int getDtosResolved() {
+        return dtosResolved.get();
+    }
+}
@@ -0,0 +1,45 @@
+package com.lps.tools.metrics;
+
+/**
+ * @author hhuang26
+ * @description 分析热路径上单独计时的阶段，name 用作指标的 stage 标签及 Server-Timing 中的名称
+ */
+public enum AnalysisStage {
+    /**
+     * 获取分支最新提交的 SHA
+     */
+    BRANCH_SHA("branch_sha"),
+    /**
+     * 获取仓库树（含增量分析的 compare 请求）
+     */
+    TREE_FETCH("tree_fetch"),
+    /**
+     * 下载 zipball 预热 blob 缓存
+     */
+    ARCHIVE_FETCH("archive_fetch"),
+    /**
+     * 逐个获取文件内容（blob / contents 接口）
+     */
+    FILE_FETCH("file_fetch"),
+    BASE64_DECODE("base64_decode"),
+    /**
+     * JavaParser 解析
+     */
+    PARSE("parse"),
+    /**
+     * 查找控制器引用的数据类（含嵌套数据类）
+     */
+    DTO_RESOLVE("dto_resolve"),
+    CLEAN_CODE("clean_code"),
+    MARKDOWN_FIX("markdown_fix");
+
+    private final String tag;
+
+    AnalysisStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,83 @@
+package com.lps.tools.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author hhuang26
+ * @description 单个请求在各阶段花费的时间，由 StageTimer 累加，请求结束时以 Server-Timing 响应头输出。
+ * 通过 ThreadLocal 绑定到处理请求的线程，流水线等线程池需要显式传递（见 callWith）。
+ * 各阶段可能在多个线程上并发执行，耗时是各次调用之和，可能大于请求的总耗时
+ */
+public class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray nanos = new AtomicLongArray(AnalysisStage.values().length);
+    private final AtomicLongArray calls = new AtomicLongArray(AnalysisStage.values().length);
+
+    public RequestTiming(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 当前线程正在处理的请求，不在请求中时返回 null
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(RequestTiming timing) {
+        if (timing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timing);
+        }
+    }
+
+    /**
+     * 在其他线程上以指定请求的身份执行，结束后恢复原值
+     */
+    public static <T> T callWith(RequestTiming timing, Callable<T> callable) throws Exception {
+        RequestTiming previous = CURRENT.get();
+        bind(timing);
+        try {
+            return callable.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    void add(AnalysisStage stage, long elapsedNanos) {
+        nanos.addAndGet(stage.ordinal(), elapsedNanos);
+        calls.incrementAndGet(stage.ordinal());
+    }
+
+    /**
+     * Server-Timing 格式：branch_sha;dur=12.3;desc="1", ..., total;dur=456.7。desc 为调用次数，未执行的阶段不输出
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (AnalysisStage stage : AnalysisStage.values()) {
+            long count = calls.get(stage.ordinal());
+            if (count == 0) {
+                continue;
+            }
+            sb.append(stage.tag()).append(";dur=").append(millis(nanos.get(stage.ordinal())))
+                    .append(";desc=\"").append(count).append("\", ");
+        }
+        sb.append("total;dur=").append(millis(System.nanoTime() - startNanos));
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
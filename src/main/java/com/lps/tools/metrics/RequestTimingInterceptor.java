@@ -0,0 +1,31 @@
+package com.lps.tools.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * @author hhuang26
+ * @description 为每个请求创建 RequestTiming 并绑定到当前线程，endpoint 取匹配的路径模板（如 /github/jobs/{id}），避免标签数量随路径参数增长
+ */
+public class RequestTimingInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        RequestTiming.bind(new RequestTiming(pattern != null ? pattern.toString() : "unmatched"));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 异步接口（Flux 等）的请求线程在此返回线程池
+        RequestTiming.bind(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTiming.bind(null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.lps.tools.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description 阶段计时：每次调用记录到 tools.analysis.stage 计时器（标签 stage、endpoint、outcome），
+ * 并累加到当前请求的 RequestTiming。静态方法便于工具类直接使用，Spring 启动后替换为容器中的 MeterRegistry。
+ * 计时器按 (stage, endpoint, outcome) 缓存，热路径上不再每次构建 Timer 并查找注册表
+ */
+public class StageTimer {
+
+    public static final String METRIC_NAME = "tools.analysis.stage";
+
+    /**
+     * 不在 HTTP 请求中执行时（批量分析、后台任务等）的 endpoint 标签
+     */
+    private static final String NO_ENDPOINT = "none";
+
+    private static volatile Timers timers = new Timers(Metrics.globalRegistry);
+
+    private StageTimer() {
+    }
+
+    public static void setMeterRegistry(MeterRegistry configured) {
+        timers = new Timers(configured);
+    }
+
+    public static <T, E extends Exception> T time(AnalysisStage stage, StageCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            record(stage, outcome, System.nanoTime() - start);
+        }
+    }
+
+    public static void record(AnalysisStage stage, String outcome, long elapsedNanos) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.add(stage, elapsedNanos);
+        }
+        timers.get(stage, timing == null ? NO_ENDPOINT : timing.getEndpoint(), outcome)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 绑定到一个注册表的计时器缓存，替换注册表时整体替换。
+     * endpoint 取自路由模板，取值有限，缓存不会无限增长
+     */
+    private static class Timers {
+
+        private final MeterRegistry registry;
+
+        private final Map<TimerKey, Timer> cache = new ConcurrentHashMap<>();
+
+        Timers(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        Timer get(AnalysisStage stage, String endpoint, String outcome) {
+            return cache.computeIfAbsent(new TimerKey(stage, endpoint, outcome), key -> Timer.builder(METRIC_NAME)
+                    .description("分析热路径各阶段耗时")
+                    .tag("stage", stage.tag())
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    private record TimerKey(AnalysisStage stage, String endpoint, String outcome) {
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
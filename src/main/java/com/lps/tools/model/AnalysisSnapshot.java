@@ -0,0 +1,43 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author hhuang26
+ * @description 某个 owner/repo/branch 最近一次分析的快照
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisSnapshot {
+    /**
+     * 分析时的提交 SHA
+     */
+    private String commitSha;
+
+    /**
+     * 控制器及数据类：路径 -> blob SHA，用于与下一次提交做差异比较
+     */
+    private Map<String, String> blobShas;
+
+    /**
+     * 数据类路径，数据类增删会影响类名匹配结果，此时所有控制器都需要重新分析
+     */
+    private Set<String> dataClassPaths;
+
+    /**
+     * 按控制器顺序保存的结果
+     */
+    private List<ControllerSnapshot> controllers;
+
+    /**
+     * 所有控制器都已完整分析并保存；为 false 时即使提交未变化，也需要重新分析缺失的控制器
+     */
+    private boolean complete;
+}
@@ -0,0 +1,19 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description blob 缓存统计
+ */
+@Data
+@AllArgsConstructor
+public class CacheStatsResult {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long evictionWeight;
+}
@@ -0,0 +1,71 @@
+package com.lps.tools.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author hhuang26
+ * @description 单个控制器在分析流水线中的中间状态
+ */
+@Data
+public class ControllerAnalysis {
+    private String path;
+
+    /**
+     * 控制器 blob SHA，未知时为 null
+     */
+    private String blobSha;
+
+    /**
+     * 控制器源码
+     */
+    private String content;
+
+    private String packageName;
+
+    /**
+     * 简单类名 -> 全限定类名
+     */
+    private Map<String, String> imports = new HashMap<>();
+
+    /**
+     * 入参类型
+     */
+    private Set<String> paramClasses = new LinkedHashSet<>();
+
+    /**
+     * 出参类型
+     */
+    private Set<String> returnClasses = new LinkedHashSet<>();
+
+    /**
+     * 已获取的 DTO 源码（入参在前，出参在后，含嵌套引用的 DTO，不重复）
+     */
+    private List<String> dtoSources = new ArrayList<>();
+
+    /**
+     * 与 dtoSources 一一对应的数据类路径
+     */
+    private List<String> dtoPaths = new ArrayList<>();
+
+    /**
+     * 源码获取失败的数据类路径，结果中缺少这些数据类
+     */
+    private List<String> failedDtoPaths = new ArrayList<>();
+
+    /**
+     * 分析中出现了可能是暂时性的失败（网络错误、限流、超时等），结果不完整，不能作为快照复用
+     */
+    private boolean partial;
+
+    public ControllerAnalysis(String path, String content) {
+        this.path = path;
+        this.content = content;
+    }
+}
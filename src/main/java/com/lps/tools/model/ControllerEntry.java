@@ -0,0 +1,24 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author hhuang26
+ * @description 去重输出模式下的单个控制器：只包含控制器源码，数据类通过 ID 引用
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ControllerEntry {
+    private String path;
+    private String content;
+
+    /**
+     * 引用的数据类 ID，对应 DeduplicatedAnalysisResult.dtos 的键
+     */
+    private List<String> dtoIds;
+}
@@ -0,0 +1,17 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author hhuang26
+ * @description 单个控制器的分析结果（控制器源码及其数据类源码）
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ControllerResult {
+    private String path;
+    private String content;
+}
@@ -0,0 +1,25 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author hhuang26
+ * @description 控制器方法签名摘要：入参、出参引用的业务类型，按 blob SHA 缓存，同一内容的控制器只解析一次
+ */
+@Data
+@AllArgsConstructor
+public class ControllerSignature {
+    private String packageName;
+
+    /**
+     * 简单类名 -> 全限定类名
+     */
+    private Map<String, String> imports;
+
+    private Set<String> paramClasses;
+    private Set<String> returnClasses;
+}
@@ -0,0 +1,33 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * @author hhuang26
+ * @description 单个控制器的分析结果快照，控制器及其依赖的数据类 SHA 均未变化时可直接复用
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ControllerSnapshot {
+    private String path;
+
+    /**
+     * 控制器 blob SHA；分析不完整时为 null，此时不可复用，也不写入快照
+     */
+    private String blobSha;
+
+    /**
+     * 依赖的数据类：路径 -> blob SHA，获取失败的数据类 SHA 为 null
+     */
+    private Map<String, String> dependencies;
+
+    /**
+     * 分析结果（与 analyze-controllers 的单条输出相同）
+     */
+    private String result;
+}
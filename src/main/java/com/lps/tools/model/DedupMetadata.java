@@ -0,0 +1,31 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author hhuang26
+ * @description 去重输出的体积统计，token 数按 4 字节/token 估算
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DedupMetadata {
+    private int controllerCount;
+    private int dtoCount;
+
+    /**
+     * 每个控制器内联全部数据类源码时的字节数（UTF-8）
+     */
+    private long inlineBytes;
+
+    /**
+     * 数据类只输出一次时的字节数（UTF-8）
+     */
+    private long deduplicatedBytes;
+    private long savedBytes;
+    private long estimatedInlineTokens;
+    private long estimatedDeduplicatedTokens;
+    private long estimatedSavedTokens;
+}
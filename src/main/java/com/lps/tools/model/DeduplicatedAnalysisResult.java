@@ -0,0 +1,25 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author hhuang26
+ * @description 去重输出模式的分析结果：数据类源码在 dtos 中只出现一次，控制器按 ID 引用
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeduplicatedAnalysisResult {
+    private List<ControllerEntry> controllers;
+
+    /**
+     * 数据类 ID -> 清理后的源码
+     */
+    private Map<String, String> dtos;
+    private DedupMetadata metadata;
+}
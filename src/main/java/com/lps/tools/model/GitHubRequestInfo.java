@@ -2,12 +2,14 @@ package com.lps.tools.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * @author hhuang26
  */
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class GitHubRequestInfo {
     private String owner;
     private String repo;
@@ -11,4 +11,8 @@ import lombok.Data;
 public class GitHubTreeItem {
     private String path;
     private String type;
+    /**
+     * git blob SHA，同一内容的文件 SHA 相同
+     */
+    private String sha;
 }
\ No newline at end of file
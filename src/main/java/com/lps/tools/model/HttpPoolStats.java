@@ -0,0 +1,29 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description 阻塞 HTTP 客户端连接池状态
+ */
+@Data
+@AllArgsConstructor
+public class HttpPoolStats {
+    /**
+     * 正在使用的连接数
+     */
+    private int leased;
+
+    /**
+     * 等待获取连接的请求数
+     */
+    private int pending;
+
+    /**
+     * 空闲可复用的连接数
+     */
+    private int available;
+    private int max;
+    private int routes;
+}
@@ -0,0 +1,20 @@
+package com.lps.tools.model;
+
+/**
+ * @author hhuang26
+ * @description 仓库文件获取方式
+ */
+public enum IngestionMode {
+    /**
+     * 逐个文件调用 API 获取
+     */
+    CONTENTS,
+    /**
+     * 下载整个提交的 zipball，流式解压并只保留需要的文件
+     */
+    ARCHIVE,
+    /**
+     * 需要获取的文件数达到阈值时使用 ARCHIVE，否则使用 CONTENTS
+     */
+    AUTO
+}
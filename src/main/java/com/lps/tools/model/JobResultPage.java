@@ -0,0 +1,21 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author hhuang26
+ * @description 分析任务结果的一页
+ */
+@Data
+@AllArgsConstructor
+public class JobResultPage {
+    private String jobId;
+    private JobState state;
+    private int offset;
+    private int limit;
+    private int total;
+    private List<String> items;
+}
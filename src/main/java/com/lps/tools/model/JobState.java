@@ -0,0 +1,17 @@
+package com.lps.tools.model;
+
+/**
+ * @author hhuang26
+ * @description 分析任务状态
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,45 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description 分析任务的状态与进度
+ */
+@Data
+@AllArgsConstructor
+public class JobStatus {
+    private String jobId;
+    private String owner;
+    private String repo;
+    private String branch;
+    private JobState state;
+
+    /**
+     * 控制器总数、复用上次结果的控制器数
+     */
+    private int controllers;
+    private int reused;
+
+    /**
+     * 已获取、已解析、已完成数据类查找的控制器数，以及找到的数据类总数
+     */
+    private int fetched;
+    private int parsed;
+    private int resolved;
+    private int dtosResolved;
+
+    /**
+     * 完成后的结果条数
+     */
+    private int resultCount;
+    private String error;
+
+    /**
+     * 提交、开始、结束时间（epoch 毫秒），未发生时为 0
+     */
+    private long submittedAt;
+    private long startedAt;
+    private long finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author hhuang26
+ * @description 控制器分析流水线的运行指标
+ */
+@Data
+@AllArgsConstructor
+public class PipelineStats {
+    private int maxInFlight;
+    private int inFlight;
+    private List<StageStats> stages;
+}
@@ -0,0 +1,32 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description 单个 token 的 GitHub 速率限制状态
+ */
+@Data
+@AllArgsConstructor
+public class RateLimitStats {
+    /**
+     * token 摘要（不返回 token 本身）
+     */
+    private String token;
+    private int limit;
+    private int remaining;
+
+    /**
+     * 配额重置时间（epoch 秒）
+     */
+    private long resetAt;
+
+    /**
+     * 因 403/429 暂停请求直到该时间（epoch 毫秒）
+     */
+    private long blockedUntil;
+    private long requests;
+    private long throttled;
+    private long waitedMillis;
+}
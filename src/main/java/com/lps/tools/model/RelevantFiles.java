@@ -1,11 +1,13 @@
 package com.lps.tools.model;
 
+import com.lps.tools.index.ClassNameIndex;
 import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -29,4 +31,29 @@ public class RelevantFiles {
      */
     Map<String, String> dataClasses ;
 
+    /**
+     * 文件路径 -> git blob SHA
+     */
+    Map<String, String> blobShas;
+
+    /**
+     * dataClasses 的类名索引
+     */
+    ClassNameIndex classIndex;
+
+    /**
+     * 全限定类名 -> 数据类路径，用于按 import 精确定位
+     */
+    Map<String, String> qualifiedDataClasses;
+
+    /**
+     * 由多个路径声明的全限定类名（如多模块仓库中各模块的同名类） -> 全部路径，按仓库树顺序
+     */
+    Map<String, List<String>> duplicateQualifiedDataClasses = new HashMap<>();
+
+    /**
+     * 本次分析中已解析的数据类闭包：数据类路径 -> 该数据类及其（按层级）引用的数据类路径
+     */
+    Map<String, List<String>> dtoClosures = new ConcurrentHashMap<>();
+
 }
\ No newline at end of file
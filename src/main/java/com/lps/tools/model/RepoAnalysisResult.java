@@ -0,0 +1,24 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author hhuang26
+ * @description 批量分析中单个仓库的结果，失败时 results 为空、error 为失败原因
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepoAnalysisResult {
+    private String owner;
+    private String repo;
+    private String branch;
+    private String commitSha;
+    private List<String> results;
+    private String error;
+    private long elapsedMillis;
+}
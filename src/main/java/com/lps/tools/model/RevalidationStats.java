@@ -0,0 +1,21 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description 条件请求（ETag 重新验证）统计
+ */
+@Data
+@AllArgsConstructor
+public class RevalidationStats {
+    private long requests;
+
+    /**
+     * 返回 304 的请求数
+     */
+    private long notModified;
+    private double hitRate;
+    private long entries;
+}
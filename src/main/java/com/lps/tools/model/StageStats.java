@@ -0,0 +1,22 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author hhuang26
+ * @description 流水线单个阶段的运行指标
+ */
+@Data
+@AllArgsConstructor
+public class StageStats {
+    private String stage;
+    private int parallelism;
+    private int active;
+    /**
+     * 等待执行的任务数
+     */
+    private int queueDepth;
+    private long completed;
+    private long failed;
+}
@@ -0,0 +1,27 @@
+package com.lps.tools.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author hhuang26
+ * @description 数据类解析摘要：用于解析其字段引用的其他数据类，按 blob SHA 缓存
+ */
+@Data
+@AllArgsConstructor
+public class TypeSummary {
+    private String packageName;
+
+    /**
+     * 简单类名 -> 全限定类名
+     */
+    private Map<String, String> imports;
+
+    /**
+     * 字段及父类引用的业务类型简单类名
+     */
+    private Set<String> referencedTypes;
+}
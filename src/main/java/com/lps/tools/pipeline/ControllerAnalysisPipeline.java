@@ -0,0 +1,180 @@
+package com.lps.tools.pipeline;
+
+import com.lps.tools.metrics.RequestTiming;
+import com.lps.tools.model.PipelineStats;
+import com.lps.tools.model.StageStats;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import com.lps.tools.ratelimit.RequestPriority;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author hhuang26
+ * @description 分阶段的控制器分析流水线：fetch → parse → resolve → render。
+ * 每个阶段使用独立的有界线程池，网络阶段的并发度决定了对 GitHub 的并发请求数；
+ * 同时处于流水线中的条目数受 maxInFlight 限制，结果按输入顺序返回。
+ */
+@Component
+public class ControllerAnalysisPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ControllerAnalysisPipeline.class);
+
+    private final Map<PipelineStage, StageExecutor> executors = new EnumMap<>(PipelineStage.class);
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    public ControllerAnalysisPipeline(@Value("${tools.analysis.pipeline.fetch-parallelism:8}") int fetchParallelism,
+                                      @Value("${tools.analysis.pipeline.parse-parallelism:0}") int parseParallelism,
+                                      @Value("${tools.analysis.pipeline.resolve-parallelism:8}") int resolveParallelism,
+                                      @Value("${tools.analysis.pipeline.render-parallelism:0}") int renderParallelism,
+                                      @Value("${tools.analysis.pipeline.max-in-flight:64}") int maxInFlight) {
+        // CPU 密集阶段未配置时取 CPU 核数
+        int cpus = Runtime.getRuntime().availableProcessors();
+        executors.put(PipelineStage.FETCH, new StageExecutor(PipelineStage.FETCH, fetchParallelism));
+        executors.put(PipelineStage.PARSE, new StageExecutor(PipelineStage.PARSE, parseParallelism > 0 ? parseParallelism : cpus));
+        executors.put(PipelineStage.RESOLVE, new StageExecutor(PipelineStage.RESOLVE, resolveParallelism));
+        executors.put(PipelineStage.RENDER, new StageExecutor(PipelineStage.RENDER, renderParallelism > 0 ? renderParallelism : cpus));
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 处理一批输入，按输入顺序返回结果；某个条目在任一阶段失败或返回 null 时，该条目被跳过。
+     * 速率配额耗尽时其余条目也会失败，此时抛出 RateLimitExceededException；分析被取消时抛出 CancellationException，
+     * 均不返回缺少条目的结果
+     */
+    public <I, A, B, C, R> List<R> process(List<I> inputs,
+                                           StageFunction<I, A> fetch,
+                                           StageFunction<A, B> parse,
+                                           StageFunction<B, C> resolve,
+                                           StageFunction<C, R> render) throws RateLimitExceededException, InterruptedException {
+        List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+        for (I input : inputs) {
+            futures.add(submit(input, fetch, parse, resolve, render));
+        }
+
+        List<R> results = new ArrayList<>(inputs.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                R result = futures.get(i).join();
+                if (result != null) {
+                    results.add(result);
+                }
+            } catch (CompletionException e) {
+                RateLimitExceededException rateLimit = RateLimitExceededException.find(e);
+                if (rateLimit != null) {
+                    throw rateLimit;
+                }
+                if (e.getCause() instanceof CancellationException cancelled) {
+                    throw cancelled;
+                }
+                // 单个条目失败不影响其他条目
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.error("Error processing file: {}. Error: {}", inputs.get(i), cause.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 提交单个条目，返回其最终结果。进入流水线前先占用一个 in-flight 名额，条目结束后释放
+     */
+    public <I, A, B, C, R> CompletableFuture<R> submit(I input,
+                                                       StageFunction<I, A> fetch,
+                                                       StageFunction<A, B> parse,
+                                                       StageFunction<B, C> resolve,
+                                                       StageFunction<C, R> render) throws InterruptedException {
+        inFlight.acquire();
+        // 各阶段的耗时计入提交该条目的请求
+        RequestTiming timing = RequestTiming.current();
+        CompletableFuture<R> future;
+        try {
+            future = executors.get(PipelineStage.FETCH).supply(fetch, input, timing)
+                    .thenCompose(a -> executors.get(PipelineStage.PARSE).supply(parse, a, timing))
+                    .thenCompose(b -> executors.get(PipelineStage.RESOLVE).supply(resolve, b, timing))
+                    .thenCompose(c -> executors.get(PipelineStage.RENDER).supply(render, c, timing));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        future.whenComplete((r, e) -> inFlight.release());
+        return future;
+    }
+
+    public PipelineStats stats() {
+        List<StageStats> stages = new ArrayList<>();
+        for (StageExecutor executor : executors.values()) {
+            stages.add(executor.stats());
+        }
+        return new PipelineStats(maxInFlight, maxInFlight - inFlight.availablePermits(), stages);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(executor -> executor.pool.shutdownNow());
+    }
+
+    /**
+     * 单个阶段的线程池及计数器。上一阶段返回 null 时直接跳过后续阶段
+     */
+    private static class StageExecutor {
+        private final PipelineStage stage;
+        private final ThreadPoolExecutor pool;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        StageExecutor(PipelineStage stage, int parallelism) {
+            this.stage = stage;
+            String prefix = "pipeline-" + stage.name().toLowerCase() + "-";
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // 队列长度由 maxInFlight 间接限制
+            this.pool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+        }
+
+        <T, U> CompletableFuture<U> supply(StageFunction<T, U> function, T input, RequestTiming timing) {
+            if (input == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    // 流水线中的 GitHub 请求按批量优先级调度，配额紧张时让位给交互请求
+                    U output = RequestTiming.callWith(timing,
+                            () -> RequestPriority.callWith(RequestPriority.BULK, () -> function.apply(input)));
+                    completed.incrementAndGet();
+                    return output;
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    throw new CompletionException(e);
+                }
+            }, pool);
+        }
+
+        StageStats stats() {
+            return new StageStats(stage.name(), pool.getMaximumPoolSize(), pool.getActiveCount(),
+                    pool.getQueue().size(), completed.get(), failed.get());
+        }
+    }
+}
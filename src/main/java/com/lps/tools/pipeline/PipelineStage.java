@@ -0,0 +1,24 @@
+package com.lps.tools.pipeline;
+
+/**
+ * @author hhuang26
+ * @description 控制器分析流水线的阶段
+ */
+public enum PipelineStage {
+    /**
+     * 获取控制器源码
+     */
+    FETCH,
+    /**
+     * JavaParser 解析出入参类型
+     */
+    PARSE,
+    /**
+     * 匹配并获取 DTO 源码
+     */
+    RESOLVE,
+    /**
+     * 清理源码并拼接输出
+     */
+    RENDER
+}
@@ -0,0 +1,10 @@
+package com.lps.tools.pipeline;
+
+/**
+ * @author hhuang26
+ * @description 流水线中单个阶段的处理逻辑，返回 null 表示丢弃该条目
+ */
+@FunctionalInterface
+public interface StageFunction<I, O> {
+    O apply(I input) throws Exception;
+}
@@ -0,0 +1,215 @@
+package com.lps.tools.ratelimit;
+
+import com.lps.tools.model.RateLimitStats;
+import com.lps.tools.util.HttpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author hhuang26
+ * @description 所有 GitHub 请求共用的速率调度器，按 token 分别维护配额：
+ * 1. 令牌桶限制每秒请求数，避免触发 GitHub 的次级速率限制；
+ * 2. 根据响应头 X-RateLimit-Remaining / X-RateLimit-Reset 跟踪剩余配额，剩余配额低于预留值时批量请求等待重置，交互请求继续；
+ * 3. 收到 403/429 限流响应时按 Retry-After、重置时间或指数退避暂停该 token 的所有请求，并通知调用方重试；
+ * 4. 单次需要等待的时间超过 max-wait 时抛出 RateLimitExceededException，不让流水线线程阻塞到配额重置（最长约一小时）。
+ */
+@Component
+public class GitHubRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubRateLimiter.class);
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int interactiveReserve;
+    private final int maxRetries;
+    private final Duration maxBackoff;
+    private final Duration maxWait;
+
+    public GitHubRateLimiter(@Value("${tools.github.rate-limit.permits-per-second:10}") double permitsPerSecond,
+                             @Value("${tools.github.rate-limit.burst:20}") int burst,
+                             @Value("${tools.github.rate-limit.interactive-reserve:100}") int interactiveReserve,
+                             @Value("${tools.github.rate-limit.max-retries:3}") int maxRetries,
+                             @Value("${tools.github.rate-limit.max-backoff:60s}") Duration maxBackoff,
+                             @Value("${tools.github.rate-limit.max-wait:60s}") Duration maxWait) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.interactiveReserve = interactiveReserve;
+        this.maxRetries = maxRetries;
+        this.maxBackoff = maxBackoff;
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * 尝试获取一次请求许可。可以立即发送时占用许可并返回 0，否则返回需要等待的毫秒数（不占用许可，调用方等待后重新申请）
+     *
+     * @throws RateLimitExceededException 需要等待的时间超过 max-wait
+     */
+    public long tryAcquire(String authorization, RequestPriority priority) throws RateLimitExceededException {
+        return checkWait(priority, budget(authorization).tryAcquire(priority, System.currentTimeMillis()));
+    }
+
+    /**
+     * 阻塞直到获取许可
+     *
+     * @throws RateLimitExceededException 需要等待的时间超过 max-wait，此时不等待
+     */
+    public void acquire(String authorization, RequestPriority priority) throws InterruptedException, RateLimitExceededException {
+        Budget budget = budget(authorization);
+        long wait;
+        while ((wait = checkWait(priority, budget.tryAcquire(priority, System.currentTimeMillis()))) > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    private long checkWait(RequestPriority priority, long wait) throws RateLimitExceededException {
+        if (wait > maxWait.toMillis()) {
+            throw new RateLimitExceededException(priority, wait, System.currentTimeMillis() + wait);
+        }
+        return wait;
+    }
+
+    /**
+     * 根据响应更新配额。返回需要等待后重试的毫秒数，-1 表示不是限流响应、无需重试
+     *
+     * @param attempt 当前是第几次重试（从 0 开始），用于计算指数退避
+     */
+    public long onResponse(String authorization, int status, HttpHeaders headers, int attempt) {
+        Budget budget = budget(authorization);
+        budget.update(headers);
+        if (status != 403 && status != 429) {
+            return -1;
+        }
+        // 403 且配额未用尽、没有 Retry-After 时是权限问题，不重试
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        long now = System.currentTimeMillis();
+        long blockedUntil;
+        if (retryAfter != null) {
+            blockedUntil = now + parseLong(retryAfter, 1) * 1000;
+        } else if (budget.remaining == 0 && budget.resetAt > 0) {
+            blockedUntil = budget.resetAt * 1000;
+        } else if (status == 429) {
+            blockedUntil = now + Math.min(maxBackoff.toMillis(), 1000L << Math.min(attempt, 16));
+        } else {
+            return -1;
+        }
+        blockedUntil = Math.min(blockedUntil, now + maxBackoff.toMillis());
+        budget.block(blockedUntil);
+        logger.warn("GitHub 限流 (status {}), token {} 暂停 {}ms", status, budget.key, blockedUntil - now);
+        return Math.max(0, blockedUntil - now);
+    }
+
+    public List<RateLimitStats> stats() {
+        List<RateLimitStats> stats = new ArrayList<>();
+        budgets.values().forEach(budget -> stats.add(budget.stats()));
+        return stats;
+    }
+
+    private Budget budget(String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            return budgets.computeIfAbsent("anonymous", Budget::new);
+        }
+        // 与 HttpUtil 的缓存键保持一致：只对 token 本身取摘要
+        String token = authorization.startsWith("Bearer ") ? authorization.substring("Bearer ".length()) : authorization;
+        String key = HttpUtil.tokenDigest(token);
+        return budgets.computeIfAbsent(key, Budget::new);
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 单个 token 的配额状态
+     */
+    private class Budget {
+        private final String key;
+        private double tokens = burst;
+        private long refilledAt = System.currentTimeMillis();
+        private volatile int limit = -1;
+        private volatile int remaining = -1;
+        private volatile long resetAt;
+        private volatile long blockedUntil;
+        private long requests;
+        private long throttled;
+        private long waitedMillis;
+
+        Budget(String key) {
+            this.key = key;
+        }
+
+        synchronized long tryAcquire(RequestPriority priority, long now) {
+            if (blockedUntil > now) {
+                return recordWait(blockedUntil - now);
+            }
+            // 剩余配额不足预留值时，批量请求等待配额重置
+            if (priority == RequestPriority.BULK && remaining >= 0 && remaining <= interactiveReserve && resetAt * 1000 > now) {
+                return recordWait(resetAt * 1000 - now);
+            }
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / 1000.0);
+            refilledAt = now;
+            if (tokens < 1) {
+                return recordWait(Math.max(1, (long) Math.ceil((1 - tokens) * 1000.0 / permitsPerSecond)));
+            }
+            tokens -= 1;
+            requests++;
+            if (remaining > 0) {
+                // 在收到响应前先预扣，避免并发请求超出配额
+                remaining--;
+            }
+            return 0;
+        }
+
+        synchronized void update(HttpHeaders headers) {
+            String remainingHeader = headers.getFirst("X-RateLimit-Remaining");
+            String resetHeader = headers.getFirst("X-RateLimit-Reset");
+            String limitHeader = headers.getFirst("X-RateLimit-Limit");
+            if (limitHeader != null) {
+                limit = (int) parseLong(limitHeader, limit);
+            }
+            if (resetHeader != null) {
+                long reset = parseLong(resetHeader, resetAt);
+                // 新的配额窗口直接采用服务端的剩余值，同一窗口内只会越来越少
+                if (reset != resetAt) {
+                    resetAt = reset;
+                    remaining = -1;
+                }
+            }
+            if (remainingHeader != null) {
+                int value = (int) parseLong(remainingHeader, remaining);
+                remaining = remaining < 0 ? value : Math.min(remaining, value);
+            }
+        }
+
+        synchronized void block(long until) {
+            blockedUntil = Math.max(blockedUntil, until);
+            throttled++;
+        }
+
+        private long recordWait(long millis) {
+            waitedMillis += millis;
+            return millis;
+        }
+
+        synchronized RateLimitStats stats() {
+            return new RateLimitStats(key, limit, remaining, resetAt, blockedUntil, requests, throttled, waitedMillis);
+        }
+    }
+}
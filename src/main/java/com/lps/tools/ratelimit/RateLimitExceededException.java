@@ -0,0 +1,37 @@
+package com.lps.tools.ratelimit;
+
+import java.io.IOException;
+
+/**
+ * @author hhuang26
+ * @description 获取请求许可需要等待的时间超过 tools.github.rate-limit.max-wait（通常是批量请求在等待配额重置），
+ * 不再阻塞调用线程，由调用方决定稍后重试或报告失败
+ */
+public class RateLimitExceededException extends IOException {
+
+    /**
+     * 预计可以再次发送请求的时间（毫秒时间戳）
+     */
+    private final long retryAt;
+
+    public RateLimitExceededException(RequestPriority priority, long waitMillis, long retryAt) {
+        super(String.format("GitHub 速率配额不足，%s 请求需等待 %ds，超过等待上限", priority, waitMillis / 1000));
+        this.retryAt = retryAt;
+    }
+
+    public long getRetryAt() {
+        return retryAt;
+    }
+
+    /**
+     * 在异常链中查找限流异常（流水线、RestTemplate 等会把它包装在其他异常中），不存在时返回 null
+     */
+    public static RateLimitExceededException find(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitExceededException rateLimit) {
+                return rateLimit;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.lps.tools.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * @author hhuang26
+ * @description WebClient 过滤器：与 RateLimitInterceptor 相同的调度逻辑，等待使用 Mono.delay，不阻塞事件循环线程
+ */
+public class RateLimitExchangeFilter implements ExchangeFilterFunction {
+
+    private final GitHubRateLimiter rateLimiter;
+
+    public RateLimitExchangeFilter(GitHubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String authorization = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+        // 优先级在订阅前读取，响应式链路中的线程不再是发起请求的线程
+        RequestPriority priority = RequestPriority.current();
+        return exchange(request, next, authorization, priority, 0);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, String authorization,
+                                          RequestPriority priority, int attempt) {
+        return acquire(authorization, priority)
+                .then(Mono.defer(() -> next.exchange(request)))
+                .flatMap(response -> {
+                    long retryAfter = rateLimiter.onResponse(authorization, response.statusCode().value(),
+                            response.headers().asHttpHeaders(), attempt);
+                    if (retryAfter < 0 || attempt >= rateLimiter.getMaxRetries()) {
+                        return Mono.just(response);
+                    }
+                    return response.releaseBody()
+                            .then(Mono.defer(() -> exchange(request, next, authorization, priority, attempt + 1)));
+                });
+    }
+
+    private Mono<Void> acquire(String authorization, RequestPriority priority) {
+        return Mono.defer(() -> {
+            long wait;
+            try {
+                wait = rateLimiter.tryAcquire(authorization, priority);
+            } catch (RateLimitExceededException e) {
+                return Mono.error(e);
+            }
+            if (wait <= 0) {
+                return Mono.empty();
+            }
+            return Mono.delay(Duration.ofMillis(wait)).then(acquire(authorization, priority));
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.lps.tools.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * @author hhuang26
+ * @description RestTemplate 拦截器：发送前向 GitHubRateLimiter 申请许可，收到限流响应后等待并重试。
+ * 需要作为最后一个拦截器注册，重试时才会重新创建底层请求
+ */
+public class RateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final GitHubRateLimiter rateLimiter;
+
+    public RateLimitInterceptor(GitHubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        RequestPriority priority = RequestPriority.current();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                rateLimiter.acquire(authorization, priority);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待 GitHub 速率配额时被中断");
+            }
+            ClientHttpResponse response = execution.execute(request, body);
+            long retryAfter = rateLimiter.onResponse(authorization, response.getStatusCode().value(), response.getHeaders(), attempt);
+            if (retryAfter < 0 || attempt >= rateLimiter.getMaxRetries()) {
+                return response;
+            }
+            // 限流响应：丢弃后等待许可（acquire 会等到暂停结束）再重试
+            response.close();
+        }
+    }
+}
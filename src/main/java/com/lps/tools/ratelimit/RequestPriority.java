@@ -0,0 +1,43 @@
+package com.lps.tools.ratelimit;
+
+/**
+ * @author hhuang26
+ * @description GitHub 请求优先级。配额紧张时为交互请求保留额度，批量请求需等待配额重置
+ */
+public enum RequestPriority {
+    /**
+     * 用户直接触发的请求（分支、仓库树、文件列表等）
+     */
+    INTERACTIVE,
+    /**
+     * 分析流水线中的批量文件请求
+     */
+    BULK;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    /**
+     * 当前线程发出请求的优先级
+     */
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 以指定优先级执行，结束后恢复原优先级
+     */
+    public static <T> T callWith(RequestPriority priority, PriorityCallable<T> callable) throws Exception {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return callable.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface PriorityCallable<T> {
+        T call() throws Exception;
+    }
+}
@@ -0,0 +1,118 @@
+package com.lps.tools.service;
+
+import com.lps.tools.cache.BlobCache;
+import com.lps.tools.metrics.AnalysisStage;
+import com.lps.tools.metrics.StageTimer;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.IngestionMode;
+import com.lps.tools.util.HttpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * @author hhuang26
+ * @description 通过一次 zipball 下载批量获取仓库文件，流式解压，只把需要的文件放入 blob 缓存
+ */
+@Service
+public class ArchiveIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveIngestionService.class);
+
+    @Autowired
+    private BlobCache blobCache;
+
+    @Autowired
+    private HttpUtil httpUtil;
+
+    @Value("${tools.github.api-base-url:https://api.github.com}")
+    private String apiBaseUrl;
+
+    @Value("${tools.github.ingestion-mode:AUTO}")
+    private IngestionMode ingestionMode;
+
+    /**
+     * AUTO 模式下，未缓存文件数达到该值时改用 zipball
+     */
+    @Value("${tools.github.archive-threshold:50}")
+    private int archiveThreshold;
+
+    /**
+     * 按配置决定是否下载 zipball 预热 blob 缓存。
+     * 下载失败只记录日志，后续仍会逐个文件获取，不影响结果。
+     *
+     * @param commitSha 提交 SHA，保证压缩包内容与树中的 blob SHA 一致
+     * @param wanted    需要的文件：路径 -> blob SHA
+     * @return 写入缓存的文件数
+     */
+    public int preload(GitHubRequestInfo gitHubRequestInfo, String commitSha, Map<String, String> wanted) {
+        if (ingestionMode == IngestionMode.CONTENTS || wanted == null || wanted.isEmpty()) {
+            return 0;
+        }
+        // 只处理缓存中还没有的文件
+        Map<String, String> missing = new HashMap<>();
+        wanted.forEach((path, sha) -> {
+            if (sha != null && blobCache.get(sha) == null) {
+                missing.put(path, sha);
+            }
+        });
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        if (ingestionMode == IngestionMode.AUTO && missing.size() < archiveThreshold) {
+            return 0;
+        }
+
+        String url = String.format("%s/repos/%s/%s/zipball/%s", apiBaseUrl, gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), commitSha);
+        try {
+            long start = System.currentTimeMillis();
+            Integer loaded = StageTimer.time(AnalysisStage.ARCHIVE_FETCH, () -> httpUtil.stream(url, gitHubRequestInfo.getToken(),
+                    gitHubRequestInfo.getGithubApiVersion(), body -> extract(body, missing)));
+            logger.info("zipball 预热完成: {}/{}, 命中 {}/{} 个文件, 耗时 {}ms", gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(),
+                    loaded, missing.size(), System.currentTimeMillis() - start);
+            return loaded == null ? 0 : loaded;
+        } catch (Exception e) {
+            logger.warn("zipball 下载失败，退回逐个文件获取: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 顺序读取 zip 条目，跳过不需要的条目，只解码选中的文件
+     */
+    int extract(InputStream body, Map<String, String> missing) throws IOException {
+        int loaded = 0;
+        try (ZipInputStream zip = new ZipInputStream(body)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null && loaded < missing.size()) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String sha = missing.get(stripRootDir(entry.getName()));
+                if (sha == null) {
+                    continue;
+                }
+                blobCache.put(sha, new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * zipball 中的条目都位于 "{owner}-{repo}-{shortSha}/" 目录下，去掉该前缀得到仓库内路径
+     */
+    private String stripRootDir(String entryName) {
+        int slash = entryName.indexOf('/');
+        return slash >= 0 ? entryName.substring(slash + 1) : entryName;
+    }
+}
@@ -0,0 +1,192 @@
+package com.lps.tools.service;
+
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.RelevantFiles;
+import com.lps.tools.model.RepoAnalysisResult;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hhuang26
+ * @description 多仓库批量分析。各仓库的准备（分支 SHA、仓库树、zipball 预热）并发进行，
+ * 准备好的仓库加入轮转：调度线程每轮从每个仓库各取一个控制器提交到共享流水线，
+ * 大仓库不会占满流水线而让小仓库长时间等待。blob 缓存与数据类摘要缓存按 SHA 共享，
+ * 多个仓库中相同的公共库、DTO 只拉取和解析一次。每个仓库全部完成后立即输出该仓库的结果
+ */
+@Service
+public class BatchAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchAnalysisService.class);
+
+    @Autowired
+    private GithubService githubService;
+
+    /**
+     * 同时准备的仓库数
+     */
+    @Value("${tools.analysis.batch.prepare-parallelism:4}")
+    private int prepareParallelism;
+
+    /**
+     * 单次批量请求的仓库数上限
+     */
+    @Value("${tools.analysis.batch.max-repositories:100}")
+    private int maxRepositories;
+
+    public Flux<RepoAnalysisResult> analyzeRepositories(List<GitHubRequestInfo> requests) {
+        if (requests.size() > maxRepositories) {
+            return Flux.error(new IllegalArgumentException("批量分析的仓库数超过上限: " + maxRepositories));
+        }
+        return Flux.create(sink -> {
+            BlockingQueue<RepoBatch> prepared = new LinkedBlockingQueue<>();
+            Flux.fromIterable(requests)
+                    .flatMap(request -> prepare(request, sink), prepareParallelism)
+                    .doOnNext(prepared::add)
+                    .doFinally(signal -> prepared.add(RepoBatch.END))
+                    .subscribe();
+            Schedulers.boundedElastic().schedule(() -> dispatch(prepared, requests.size(), sink));
+        });
+    }
+
+    // 准备单个仓库，失败时直接输出该仓库的错误结果
+    private Mono<RepoBatch> prepare(GitHubRequestInfo request, FluxSink<RepoAnalysisResult> sink) {
+        long start = System.currentTimeMillis();
+        return Mono.fromCallable(() -> {
+                    String sha = githubService.getDefaultBranchSha(request, new HttpHeaders());
+                    return new RepoBatch(request, sha, githubService.prepareRepository(request, sha), start);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    logger.error("准备仓库 {}/{} 失败: {}", request.getOwner(), request.getRepo(), e.getMessage());
+                    sink.next(new RepoAnalysisResult(request.getOwner(), request.getRepo(), request.getBranch(), null,
+                            Collections.emptyList(), e.getMessage(), System.currentTimeMillis() - start));
+                    return Mono.empty();
+                });
+    }
+
+    // 轮转调度：每轮从每个仓库各提交一个控制器，直到所有仓库提交完毕
+    private void dispatch(BlockingQueue<RepoBatch> prepared, int total, FluxSink<RepoAnalysisResult> sink) {
+        List<RepoBatch> active = new ArrayList<>();
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        boolean allPrepared = false;
+        try {
+            while (!sink.isCancelled()) {
+                // 没有可提交的仓库时阻塞等待下一个准备完成的仓库
+                RepoBatch arrived = active.isEmpty() && !allPrepared ? prepared.poll(1, TimeUnit.SECONDS) : prepared.poll();
+                while (arrived != null) {
+                    if (arrived == RepoBatch.END) {
+                        allPrepared = true;
+                    } else {
+                        active.add(arrived);
+                    }
+                    arrived = prepared.poll();
+                }
+                if (active.isEmpty()) {
+                    if (allPrepared) {
+                        break;
+                    }
+                    continue;
+                }
+
+                Iterator<RepoBatch> iterator = active.iterator();
+                while (iterator.hasNext()) {
+                    RepoBatch batch = iterator.next();
+                    if (!batch.submitNext(githubService)) {
+                        iterator.remove();
+                        completions.add(batch.completion().thenAccept(sink::next));
+                    }
+                }
+            }
+            CompletableFuture.allOf(completions.toArray(new CompletableFuture[0])).join();
+            logger.info("批量分析完成: {} 个仓库", total);
+            sink.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sink.error(e);
+        } catch (Exception e) {
+            logger.error("批量分析调度失败: {}", e.getMessage());
+            sink.error(e);
+        }
+    }
+
+    /**
+     * 单个仓库的待提交控制器及已提交的结果
+     */
+    private static class RepoBatch {
+        private static final RepoBatch END = new RepoBatch(null, null, null, 0);
+
+        private final GitHubRequestInfo request;
+        private final String sha;
+        private final RelevantFiles relevantFiles;
+        private final long start;
+        private final List<CompletableFuture<String>> futures = new ArrayList<>();
+        private int next;
+
+        RepoBatch(GitHubRequestInfo request, String sha, RelevantFiles relevantFiles, long start) {
+            this.request = request;
+            this.sha = sha;
+            this.relevantFiles = relevantFiles;
+            this.start = start;
+        }
+
+        /**
+         * 提交下一个控制器，全部提交完毕时返回 false
+         */
+        boolean submitNext(GithubService githubService) throws InterruptedException {
+            List<String> controllers = relevantFiles.getControllers();
+            if (controllers == null || next >= controllers.size()) {
+                return false;
+            }
+            futures.add(githubService.submitController(controllers.get(next++), relevantFiles, request));
+            return true;
+        }
+
+        /**
+         * 全部控制器完成后按控制器顺序汇总结果，失败或为空的控制器被跳过；
+         * 速率配额耗尽时该仓库整体失败，输出错误而不是缺少控制器的结果
+         */
+        CompletableFuture<RepoAnalysisResult> completion() {
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .handle((ignored, error) -> {
+                        List<String> results = new ArrayList<>(futures.size());
+                        for (CompletableFuture<String> future : futures) {
+                            try {
+                                String result = future.join();
+                                if (result != null) {
+                                    results.add(result);
+                                }
+                            } catch (CompletionException e) {
+                                RateLimitExceededException rateLimit = RateLimitExceededException.find(e);
+                                if (rateLimit != null) {
+                                    logger.error("{}/{} 速率配额不足: {}", request.getOwner(), request.getRepo(), rateLimit.getMessage());
+                                    return new RepoAnalysisResult(request.getOwner(), request.getRepo(), request.getBranch(), sha,
+                                            Collections.emptyList(), rateLimit.getMessage(), System.currentTimeMillis() - start);
+                                }
+                                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                                logger.error("{}/{} 控制器分析失败: {}", request.getOwner(), request.getRepo(), cause.getMessage());
+                            }
+                        }
+                        return new RepoAnalysisResult(request.getOwner(), request.getRepo(), request.getBranch(), sha,
+                                results, null, System.currentTimeMillis() - start);
+                    });
+        }
+    }
+}
@@ -2,107 +2,524 @@ package com.lps.tools.service;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
-import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.TypeParameter;
+import com.lps.tools.cache.BlobCache;
+import com.lps.tools.cache.ControllerSignatureCache;
+import com.lps.tools.cache.SingleFlight;
+import com.lps.tools.cache.TypeSummaryCache;
+import com.lps.tools.index.ClassNameIndex;
+import com.lps.tools.job.AnalysisProgress;
+import com.lps.tools.metrics.AnalysisStage;
+import com.lps.tools.metrics.StageTimer;
 import com.lps.tools.model.*;
+import com.lps.tools.pipeline.ControllerAnalysisPipeline;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import com.lps.tools.store.AnalysisResultStore;
+import com.lps.tools.util.CodeCleaner;
+import com.lps.tools.util.DeclarationExtractor;
 import com.lps.tools.util.HttpUtil;
+import com.lps.tools.util.JavaParsers;
+import com.lps.tools.util.JavaTypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.RequestEntity;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
-import java.net.URI;
+import java.io.InterruptedIOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class GithubService {
     private static final Logger logger = LoggerFactory.getLogger(GithubService.class);
     @Autowired
-    private RestTemplate restTemplate;
+    private BlobCache blobCache;
 
-    private static final Set<String> PRIMITIVE_TYPES = Set.of(
-            "string", "int", "long", "double", "boolean", "list", "map", "void", "object", "integer"
+    @Autowired
+    private ArchiveIngestionService archiveIngestionService;
+
+    @Autowired
+    private ControllerAnalysisPipeline pipeline;
+
+    @Autowired
+    private TypeSummaryCache typeSummaryCache;
+
+    @Autowired
+    private ControllerSignatureCache controllerSignatureCache;
+
+    @Autowired
+    private AnalysisResultStore resultStore;
+
+    @Autowired
+    private HttpUtil httpUtil;
+
+    /**
+     * GitHub API 地址，压测或离线环境可指向本地的模拟服务
+     */
+    @Value("${tools.github.api-base-url:https://api.github.com}")
+    private String apiBaseUrl;
+
+    /**
+     * 是否启用增量分析
+     */
+    @Value("${tools.analysis.incremental:true}")
+    private boolean incremental;
+
+    /**
+     * 从入参、出参直接引用的数据类出发，沿字段类型继续查找嵌套数据类的层数，0 表示不查找嵌套数据类
+     */
+    @Value("${tools.analysis.dto-depth:3}")
+    private int dtoDepth;
+
+    /**
+     * 控制器只解析声明（跳过方法体），失败时自动改用完整解析
+     */
+    @Value("${tools.analysis.signature-only:true}")
+    private boolean signatureOnly;
+
+    /**
+     * 输出源码时是否移除注释
+     */
+    @Value("${tools.analysis.strip-comments:false}")
+    private boolean stripComments;
+
+    /**
+     * 流式输出时同时处理的控制器数
+     */
+    @Value("${tools.analysis.stream.window:16}")
+    private int streamWindow;
+
+    /**
+     * 合并同一仓库同一提交的并发分析请求，以及同一 blob 的并发拉取
+     */
+    private final SingleFlight<String, List<String>> controllerAnalyses = new SingleFlight<>();
+    private final SingleFlight<String, DeduplicatedAnalysisResult> deduplicatedAnalyses = new SingleFlight<>();
+    private final SingleFlight<String, ProjectOverviewResult> projectOverviews = new SingleFlight<>();
+    private final SingleFlight<String, String> blobFetches = new SingleFlight<>();
+
+    /**
+     * compare 接口最多返回的变更文件数，达到该值时结果可能不完整
+     */
+    private static final int COMPARE_FILE_LIMIT = 300;
+
+    /**
+     * 这些包下的类不会是仓库内的数据类
+     */
+    private static final List<String> EXTERNAL_PACKAGES = List.of(
+            "java.", "javax.", "jakarta.", "org.springframework.", "reactor.", "com.fasterxml."
     );
-    private static final Map<String, String> FILE_CACHE = new HashMap<>();
 
     public List<String> analyzeControllers(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException, URISyntaxException {
         try {
-            // 获取默认分支的 SHA 值
+            // 先解析出提交 SHA，同一提交的并发分析合并为一次；合并的计算不可取消，进度不对外报告
+            String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+            return controllerAnalyses.execute(flightKey(gitHubRequestInfo, sha, "analyze-controllers"),
+                    () -> analyze(gitHubRequestInfo, sha, new AnalysisProgress()));
+        } catch (Exception e) {
+            // 捕获主流程中的异常，避免方法完全失败
+            logger.error("Error during analysis: {}" , e.getMessage());
+            throw e; // 重新抛出异常，确保调用方可以感知到错误
+        }
+    }
+
+    /**
+     * 分析控制器并通过 progress 报告进度；progress 被取消时抛出 CancellationException，不返回部分结果。
+     * 供异步任务使用：不参与 single-flight 合并，取消、中断及进度只影响该任务本身，不会传给同一提交的其他调用方
+     */
+    public List<String> analyzeControllers(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers, AnalysisProgress progress) throws IOException {
+        try {
+            String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+            return analyze(gitHubRequestInfo, sha, progress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("分析被中断");
+        } catch (Exception e) {
+            logger.error("Error during analysis: {}" , e.getMessage());
+            throw e;
+        }
+    }
+
+    private List<String> analyze(GitHubRequestInfo gitHubRequestInfo, String sha, AnalysisProgress progress) throws IOException, InterruptedException {
+        return incremental ? analyzeIncrementally(gitHubRequestInfo, sha, progress) : analyzeAll(gitHubRequestInfo, sha, progress);
+    }
+
+    // 分析全部控制器
+    private List<String> analyzeAll(GitHubRequestInfo gitHubRequestInfo, String sha, AnalysisProgress progress) throws IOException, InterruptedException {
+        RelevantFiles relevantFiles = prepareAnalysis(gitHubRequestInfo, sha, getRepoTree(gitHubRequestInfo, sha));
+
+        // 获取控制器文件列表
+        List<String> controllerFiles = relevantFiles.getControllers();
+        if (controllerFiles == null || controllerFiles.isEmpty()) {
+            return Collections.emptyList(); // 如果没有控制器文件，直接返回空列表
+        }
+        progress.controllers(controllerFiles.size());
+
+        // 分析每个控制器文件：fetch → parse → resolve → render，结果保持控制器原有顺序
+        List<String> results = pipeline.process(controllerFiles,
+                path -> {
+                    progress.checkCancelled();
+                    return progress.fetched(fetchController(path, relevantFiles, gitHubRequestInfo));
+                },
+                analysis -> {
+                    progress.checkCancelled();
+                    return progress.parsed(parseControllerTypes(analysis));
+                },
+                analysis -> resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo, progress),
+                this::renderController);
+        progress.checkCancelled();
+        return results;
+    }
+
+    /**
+     * 去重输出模式：每个数据类的源码只输出一次，控制器通过 ID 引用，并统计节省的字节数和 token 数
+     */
+    public DeduplicatedAnalysisResult analyzeControllersDeduplicated(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+        try {
             String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+            return deduplicatedAnalyses.execute(flightKey(gitHubRequestInfo, sha, "analyze-controllers/deduplicated"),
+                    () -> analyzeDeduplicated(gitHubRequestInfo, sha));
+        } catch (Exception e) {
+            logger.error("Error during analysis: {}" , e.getMessage());
+            throw e;
+        }
+    }
 
-            // 获取仓库的树结构
-            List<GitHubTreeItem> tree = getRepoTree(gitHubRequestInfo, sha);
+    private DeduplicatedAnalysisResult analyzeDeduplicated(GitHubRequestInfo gitHubRequestInfo, String sha) throws IOException, InterruptedException {
+        RelevantFiles relevantFiles = prepareAnalysis(gitHubRequestInfo, sha, getRepoTree(gitHubRequestInfo, sha));
+        List<String> controllerFiles = relevantFiles.getControllers();
+        if (controllerFiles == null || controllerFiles.isEmpty()) {
+            return new DeduplicatedAnalysisResult(Collections.emptyList(), Collections.emptyMap(), new DedupMetadata());
+        }
 
-            // 查找相关文件
-            RelevantFiles relevantFiles = findRelevantFiles(tree);
+        List<ControllerAnalysis> analyses = pipeline.process(controllerFiles,
+                path -> fetchController(path, relevantFiles, gitHubRequestInfo),
+                this::parseControllerTypes,
+                analysis -> resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo),
+                analysis -> {
+                    // render 阶段只清理控制器源码，数据类在汇总时去重后清理
+                    analysis.setContent(analysis.getContent() == null ? "" : cleanCode(analysis.getContent()));
+                    return analysis;
+                });
+        return deduplicate(analyses, relevantFiles);
+    }
 
-            // 获取控制器文件列表
-            List<String> controllerFiles = relevantFiles.getControllers();
-            if (controllerFiles == null || controllerFiles.isEmpty()) {
-                return Collections.emptyList(); // 如果没有控制器文件，直接返回空列表
+    // 汇总控制器结果：数据类按 ID 去重，同时计算内联输出与去重输出的体积
+    private DeduplicatedAnalysisResult deduplicate(List<ControllerAnalysis> analyses, RelevantFiles relevantFiles) {
+        Map<String, String> dtos = new LinkedHashMap<>();
+        Map<String, Long> dtoBytes = new HashMap<>();
+        List<ControllerEntry> controllers = new ArrayList<>(analyses.size());
+        long inlineBytes = 0;
+        long deduplicatedBytes = 0;
+        for (ControllerAnalysis analysis : analyses) {
+            long controllerBytes = utf8Length(analysis.getContent());
+            inlineBytes += controllerBytes;
+            deduplicatedBytes += controllerBytes;
+
+            List<String> dtoIds = new ArrayList<>(analysis.getDtoPaths().size());
+            for (int i = 0; i < analysis.getDtoPaths().size(); i++) {
+                String id = dtoId(analysis.getDtoPaths().get(i), relevantFiles);
+                if (!dtos.containsKey(id)) {
+                    String cleaned = cleanCode(analysis.getDtoSources().get(i));
+                    long bytes = utf8Length(cleaned);
+                    dtos.put(id, cleaned);
+                    dtoBytes.put(id, bytes);
+                    deduplicatedBytes += bytes;
+                }
+                inlineBytes += dtoBytes.get(id);
+                dtoIds.add(id);
             }
+            controllers.add(new ControllerEntry(analysis.getPath(), analysis.getContent(), dtoIds));
+        }
 
-            // 提取前十个元素用于测试（可配置）
-//            int maxFilesToProcess = Math.min(10, controllerFiles.size());
-//            List<String> limitedControllerFiles = new ArrayList<>(controllerFiles.subList(0, maxFilesToProcess));
-
-            // 分析每个控制器文件
-//            List<AnalysisResult> results = new ArrayList<>();
-            List<String> results = new ArrayList<>();
-            for (String path : controllerFiles) {
-                try {
-                    // 获取文件内容
-                    String content = getFileContent(path, gitHubRequestInfo);
-                    if (content != null) {
-                        // 解析控制器内容
-                        String s = parseController(content, relevantFiles, gitHubRequestInfo);
-                        results.add(s);
-                    }
-                } catch (Exception e) {
-                    // 捕获单个文件处理中的异常，避免中断整个流程
-                    logger.error("Error processing file: {}. Error: {}" ,path, e.getMessage());
+        long savedBytes = inlineBytes - deduplicatedBytes;
+        DedupMetadata metadata = new DedupMetadata(controllers.size(), dtos.size(), inlineBytes, deduplicatedBytes, savedBytes,
+                estimateTokens(inlineBytes), estimateTokens(deduplicatedBytes), estimateTokens(inlineBytes) - estimateTokens(deduplicatedBytes));
+        logger.info("去重输出: {} 个控制器, {} 个数据类, 节省 {} 字节", controllers.size(), dtos.size(), savedBytes);
+        return new DeduplicatedAnalysisResult(controllers, dtos, metadata);
+    }
+
+    // 数据类 ID：优先使用全限定类名；无法推断，或仓库中有多个路径声明该全限定名（多模块仓库）时使用路径
+    private String dtoId(String path, RelevantFiles relevantFiles) {
+        String qualifiedName = JavaTypeUtil.qualifiedNameFromPath(path);
+        if (qualifiedName == null || relevantFiles.getDuplicateQualifiedDataClasses().containsKey(qualifiedName)) {
+            return path;
+        }
+        return qualifiedName;
+    }
+
+    // 按 4 字节/token 粗略估算
+    private long estimateTokens(long bytes) {
+        return (bytes + 3) / 4;
+    }
+
+    // 计算 UTF-8 编码后的字节数，避免为计数而编码整个字符串
+    private long utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    // 获取分支 SHA、仓库树并查找相关文件
+    private RelevantFiles prepareAnalysis(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+        // 获取默认分支的 SHA 值
+        String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+
+        // 获取仓库的树结构
+        return prepareAnalysis(gitHubRequestInfo, sha, getRepoTree(gitHubRequestInfo, sha));
+    }
+
+    // 查找相关文件，文件较多时一次性下载 zipball 预热缓存
+    private RelevantFiles prepareAnalysis(GitHubRequestInfo gitHubRequestInfo, String sha, List<GitHubTreeItem> tree) {
+        RelevantFiles relevantFiles = findRelevantFiles(tree);
+        archiveIngestionService.preload(gitHubRequestInfo, sha, relevantFiles.getBlobShas());
+        return relevantFiles;
+    }
+
+    /**
+     * 增量分析：与该分支上次分析的提交比较，只重新分析自身或依赖的数据类发生变化的控制器，其余结果从结果存储中复用。
+     * 优先通过 compare 接口获取变更文件并在上次的文件列表上应用变更，compare 不可用时获取完整的仓库树再逐个比较 SHA
+     */
+    private List<String> analyzeIncrementally(GitHubRequestInfo gitHubRequestInfo, String sha, AnalysisProgress progress) throws IOException, InterruptedException {
+        String key = snapshotKey(gitHubRequestInfo);
+        AnalysisSnapshot previous = resultStore.load(key);
+        if (previous != null && sha.equals(previous.getCommitSha()) && previous.isComplete()) {
+            logger.info("提交未变化，直接返回上次分析结果: {}@{}", key, sha);
+            return snapshotResults(previous.getControllers());
+        }
+
+        List<GitHubTreeItem> tree = previous == null ? null : applyCompare(gitHubRequestInfo, previous, sha);
+        if (tree == null) {
+            tree = getRepoTree(gitHubRequestInfo, sha);
+        }
+        RelevantFiles relevantFiles = prepareAnalysis(gitHubRequestInfo, sha, tree);
+        Set<String> dataClassPaths = new HashSet<>(relevantFiles.getDataClasses().values());
+
+        // 数据类集合不变时，控制器及其依赖的 SHA 都未变化即可复用
+        Map<String, ControllerSnapshot> reusable = new HashMap<>();
+        if (previous != null && dataClassPaths.equals(previous.getDataClassPaths())) {
+            for (ControllerSnapshot controller : previous.getControllers()) {
+                if (isUnchanged(controller, relevantFiles.getBlobShas())) {
+                    reusable.put(controller.getPath(), controller);
                 }
             }
+        }
+        List<String> changed = new ArrayList<>();
+        for (String path : relevantFiles.getControllers()) {
+            if (!reusable.containsKey(path)) {
+                changed.add(path);
+            }
+        }
+        logger.info("增量分析 {}@{}: 复用 {} 个控制器, 重新分析 {} 个", key, sha, reusable.size(), changed.size());
+        progress.controllers(relevantFiles.getControllers().size());
+        progress.reused(reusable.size());
+
+        List<ControllerSnapshot> analyzed = pipeline.process(changed,
+                path -> {
+                    progress.checkCancelled();
+                    return progress.fetched(fetchController(path, relevantFiles, gitHubRequestInfo));
+                },
+                analysis -> {
+                    progress.checkCancelled();
+                    return progress.parsed(parseControllerTypes(analysis));
+                },
+                analysis -> resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo, progress),
+                analysis -> toSnapshot(analysis, relevantFiles));
+        // 已取消时部分条目被跳过，不能保存为快照
+        progress.checkCancelled();
+        analyzed.forEach(controller -> reusable.put(controller.getPath(), controller));
+
+        // 按控制器顺序合并复用结果与新结果；不完整的结果照常返回，但不写入快照，下次重新分析
+        List<ControllerSnapshot> controllers = new ArrayList<>();
+        List<ControllerSnapshot> saved = new ArrayList<>();
+        for (String path : relevantFiles.getControllers()) {
+            ControllerSnapshot controller = reusable.get(path);
+            if (controller != null) {
+                controllers.add(controller);
+                if (controller.getBlobSha() != null) {
+                    saved.add(controller);
+                }
+            }
+        }
+        boolean complete = saved.size() == relevantFiles.getControllers().size();
+        if (!complete) {
+            logger.info("增量分析 {}@{}: {} 个控制器分析失败或不完整，不保存其结果", key, sha, relevantFiles.getControllers().size() - saved.size());
+        }
+        resultStore.save(key, new AnalysisSnapshot(sha, new HashMap<>(relevantFiles.getBlobShas()), dataClassPaths, saved, complete));
+        return snapshotResults(controllers);
+    }
 
-            return results;
-        } catch (Exception e) {
-            // 捕获主流程中的异常，避免方法完全失败
-            logger.error("Error during analysis: {}" , e.getMessage());
-            throw e; // 重新抛出异常，确保调用方可以感知到错误
+    // 快照的键包含影响分析结果的配置，配置变化后不复用按旧配置得到的结果
+    private String snapshotKey(GitHubRequestInfo gitHubRequestInfo) {
+        return gitHubRequestInfo.getOwner() + "/" + gitHubRequestInfo.getRepo() + "/" + gitHubRequestInfo.getBranch()
+                + "?dto-depth=" + dtoDepth + "&signature-only=" + signatureOnly + "&strip-comments=" + stripComments;
+    }
+
+    private List<String> snapshotResults(List<ControllerSnapshot> controllers) {
+        List<String> results = new ArrayList<>(controllers.size());
+        controllers.forEach(controller -> results.add(controller.getResult()));
+        return results;
+    }
+
+    // 控制器及其依赖的数据类 SHA 均与当前提交一致
+    private boolean isUnchanged(ControllerSnapshot controller, Map<String, String> blobShas) {
+        if (controller.getBlobSha() == null || !controller.getBlobSha().equals(blobShas.get(controller.getPath()))) {
+            return false;
         }
+        for (Map.Entry<String, String> dependency : controller.getDependencies().entrySet()) {
+            if (dependency.getValue() == null || !dependency.getValue().equals(blobShas.get(dependency.getKey()))) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    // 流水线 render 阶段（增量模式）：输出结果及其依赖，便于下次判断是否可复用。
+    // 获取失败的数据类记为 SHA 为 null 的依赖，分析不完整时控制器 SHA 记为 null，两者都使快照不可复用
+    private ControllerSnapshot toSnapshot(ControllerAnalysis analysis, RelevantFiles relevantFiles) {
+        Map<String, String> dependencies = new HashMap<>();
+        for (String dtoPath : analysis.getDtoPaths()) {
+            dependencies.put(dtoPath, relevantFiles.getBlobShas().get(dtoPath));
+        }
+        for (String dtoPath : analysis.getFailedDtoPaths()) {
+            dependencies.put(dtoPath, null);
+        }
+        String blobSha = analysis.isPartial() ? null : relevantFiles.getBlobShas().get(analysis.getPath());
+        return new ControllerSnapshot(analysis.getPath(), blobSha, dependencies, renderController(analysis));
+    }
 
-    public ProjectOverviewResult analyzeProjectOverview(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+    /**
+     * 通过 compare 接口获取两次提交间的变更文件，并应用到上次的文件列表上得到当前的相关文件树。
+     * 分支被强制推送（非 ahead）、变更文件达到接口上限或请求失败时返回 null，由调用方获取完整树
+     */
+    private List<GitHubTreeItem> applyCompare(GitHubRequestInfo gitHubRequestInfo, AnalysisSnapshot previous, String sha) {
+        String url = String.format("%s/repos/%s/%s/compare/%s...%s", apiBaseUrl, gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), previous.getCommitSha(), sha);
         try {
-            // 获取默认分支的 SHA
-            String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+            JsonNode response = StageTimer.time(AnalysisStage.TREE_FETCH,
+                    () -> httpUtil.get(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion()));
+            JsonNode files = response.path("files");
+            if (!"ahead".equals(response.path("status").asText()) || !files.isArray() || files.size() >= COMPARE_FILE_LIMIT) {
+                logger.info("compare 结果不可用于增量分析, status: {}, files: {}", response.path("status").asText(), files.size());
+                return null;
+            }
+
+            Map<String, String> blobShas = new HashMap<>(previous.getBlobShas());
+            for (JsonNode file : files) {
+                String filename = file.path("filename").asText();
+                String status = file.path("status").asText();
+                if ("removed".equals(status)) {
+                    blobShas.remove(filename);
+                    continue;
+                }
+                if ("renamed".equals(status)) {
+                    blobShas.remove(file.path("previous_filename").asText());
+                }
+                if (filename.endsWith(".java")) {
+                    blobShas.put(filename, file.path("sha").asText(null));
+                }
+            }
+
+            List<GitHubTreeItem> tree = new ArrayList<>(blobShas.size());
+            blobShas.forEach((path, blobSha) -> tree.add(new GitHubTreeItem(path, "blob", blobSha)));
+            // 与 git 树的顺序保持一致，保证控制器输出顺序稳定
+            tree.sort(Comparator.comparing(GitHubTreeItem::getPath));
+            return tree;
+        } catch (Exception e) {
+            logger.warn("compare 请求失败，改为获取完整仓库树: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            // 获取仓库树结构
-            List<GitHubTreeItem> tree = getRepoTree(gitHubRequestInfo,sha);
 
-            // 查找相关文件
-            RelevantFiles relevantFiles = findProjectOverviewFiles(tree);
+    /**
+     * 流式分析控制器：每个控制器分析完成即输出，输出顺序与控制器顺序一致。
+     * 同时处理的控制器数不超过 streamWindow，内存占用与窗口大小成正比，与仓库大小无关
+     */
+    public Flux<ControllerResult> streamControllers(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) {
+        return Mono.fromCallable(() -> prepareAnalysis(gitHubRequestInfo, headers))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(e -> logger.error("Error during analysis: {}", e.getMessage()))
+                .flatMapMany(relevantFiles -> {
+                    List<String> controllerFiles = relevantFiles.getControllers();
+                    return Flux.fromIterable(controllerFiles)
+                            .flatMapSequential(path -> analyzeController(path, relevantFiles, gitHubRequestInfo), streamWindow);
+                });
+    }
 
-            // 初始化结果对象
-            ProjectOverviewResult results = new ProjectOverviewResult();
+    /**
+     * 批量分析：获取提交 SHA、仓库树及相关文件，返回的 RelevantFiles 供 submitController 使用
+     */
+    RelevantFiles prepareRepository(GitHubRequestInfo gitHubRequestInfo, String sha) throws IOException {
+        return prepareAnalysis(gitHubRequestInfo, sha, getRepoTree(gitHubRequestInfo, sha));
+    }
 
-            // 处理 controllers 和 profiles 文件内容
-            results.setControllers(getFileContents(relevantFiles.getControllers(), gitHubRequestInfo));
-            results.setProfiles(getFilePathAndContents(relevantFiles.getProfiles(), gitHubRequestInfo));
+    /**
+     * 批量分析：提交单个控制器到共享流水线，流水线 in-flight 名额用完时阻塞
+     */
+    CompletableFuture<String> submitController(String path, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) throws InterruptedException {
+        return pipeline.submit(path,
+                p -> fetchController(p, relevantFiles, gitHubRequestInfo),
+                this::parseControllerTypes,
+                analysis -> resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo),
+                this::renderController);
+    }
 
-            return results;
+    // 提交单个控制器到流水线，失败时记录日志并跳过
+    private Mono<ControllerResult> analyzeController(String path, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) {
+        return Mono.fromCallable(() -> pipeline.submit(path,
+                        p -> fetchController(p, relevantFiles, gitHubRequestInfo),
+                        this::parseControllerTypes,
+                        analysis -> resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo),
+                        analysis -> new ControllerResult(analysis.getPath(), renderController(analysis))))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::fromFuture)
+                // 速率配额耗尽时以错误结束整个流，不输出缺少控制器的结果
+                .onErrorResume(e -> RateLimitExceededException.find(e) == null, e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    logger.error("Error processing file: {}. Error: {}", path, cause.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    public ProjectOverviewResult analyzeProjectOverview(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+        try {
+            // 获取默认分支的 SHA
+            String sha = getDefaultBranchSha(gitHubRequestInfo, headers);
+            return projectOverviews.execute(flightKey(gitHubRequestInfo, sha, "project-overview"),
+                    () -> buildProjectOverview(gitHubRequestInfo, sha));
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             // 记录异常日志并抛出自定义异常（可根据需求调整）
             logger.info("Error occurred while analyzing project overview: {}" , e.getMessage());
@@ -110,16 +527,41 @@ public class GithubService {
         }
     }
 
+    private ProjectOverviewResult buildProjectOverview(GitHubRequestInfo gitHubRequestInfo, String sha) throws IOException {
+        // 获取仓库树结构
+        List<GitHubTreeItem> tree = getRepoTree(gitHubRequestInfo,sha);
+
+        // 查找相关文件
+        RelevantFiles relevantFiles = findProjectOverviewFiles(tree);
+        archiveIngestionService.preload(gitHubRequestInfo, sha, relevantFiles.getBlobShas());
+
+        // 初始化结果对象
+        ProjectOverviewResult results = new ProjectOverviewResult();
+
+        // 处理 controllers 和 profiles 文件内容
+        results.setControllers(getFileContents(relevantFiles.getControllers(), relevantFiles.getBlobShas(), gitHubRequestInfo));
+        results.setProfiles(getFilePathAndContents(relevantFiles.getProfiles(), relevantFiles.getBlobShas(), gitHubRequestInfo));
+
+        return results;
+    }
+
+    // 合并请求的键：同一仓库同一提交的同一接口
+    private String flightKey(GitHubRequestInfo gitHubRequestInfo, String sha, String endpoint) {
+        return gitHubRequestInfo.getOwner() + "/" + gitHubRequestInfo.getRepo() + "@" + sha + " " + endpoint;
+    }
+
     // 提取通用方法处理文件内容获取逻辑
-    private List<String> getFileContents(List<String> paths, GitHubRequestInfo gitHubRequestInfo){
+    private List<String> getFileContents(List<String> paths, Map<String, String> blobShas, GitHubRequestInfo gitHubRequestInfo) throws RateLimitExceededException {
         List<String> contents = new ArrayList<>();
         if (paths == null || paths.isEmpty()) {
             return contents; // 如果路径列表为空，直接返回空列表
         }
         for (String path : paths) {
             try {
-                String content = getFileContent(path, gitHubRequestInfo);
+                String content = getFileContent(path, blobShas.get(path), gitHubRequestInfo);
                 contents.add(cleanCode(content));
+            } catch (RateLimitExceededException e) {
+                throw e;
             } catch (Exception e) {
                 // 单个文件获取失败时记录日志并继续处理其他文件
                 logger.info("Failed to retrieve content for file: {}. Error: {}" , path, e.getMessage());
@@ -129,7 +571,8 @@ public class GithubService {
     }
 
     // 提取通用方法处理文件内容和文件路径获取逻辑
-    private List<GitHubFileItem> getFilePathAndContents(List<String> paths, GitHubRequestInfo gitHubRequestInfo){
+    private List<GitHubFileItem> getFilePathAndContents(List<String> paths, Map<String, String> blobShas, GitHubRequestInfo gitHubRequestInfo)
+            throws RateLimitExceededException {
         List<GitHubFileItem> contents = new ArrayList<>();
         if (paths == null || paths.isEmpty()) {
             // 如果路径列表为空，直接返回空列表
@@ -137,10 +580,12 @@ public class GithubService {
         }
         for (String path : paths) {
             try {
-                String content = getFileContent(path, gitHubRequestInfo);
+                String content = getFileContent(path, blobShas.get(path), gitHubRequestInfo);
                 // 提取文件名
                 String fileName = extractFileName(path);
                 contents.add(new GitHubFileItem(fileName, cleanCode(content)));
+            } catch (RateLimitExceededException e) {
+                throw e;
             } catch (Exception e) {
                 // 单个文件获取失败时记录日志并继续处理其他文件
                 logger.info("Failed to retrieve content for file: {}. Error: {}" , path, e.getMessage());
@@ -165,41 +610,37 @@ public class GithubService {
 //        return lastAnalysisFilePath;
 //    }
 
-    public String getDefaultBranchSha(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws URISyntaxException {
-        String url = String.format("https://api.github.com/repos/%s/%s/branches/%s", gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), gitHubRequestInfo.getBranch());
-        URI uri = new URI(url);
-        RequestEntity<Void> requestEntity = new RequestEntity<>(headers, HttpMethod.GET, uri);
-        ResponseEntity<String> response = restTemplate.exchange(requestEntity, String.class);
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return parseShaFromResponse(response.getBody());
+    /**
+     * 获取分支最新提交的 SHA。通过条件请求获取，分支未变化时 GitHub 返回 304，不消耗速率限制
+     */
+    public String getDefaultBranchSha(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+        String url = String.format("%s/repos/%s/%s/branches/%s", apiBaseUrl, gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), gitHubRequestInfo.getBranch());
+        JsonNode response = StageTimer.time(AnalysisStage.BRANCH_SHA,
+                () -> httpUtil.getRevalidated(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion()));
+        String sha = response.path("commit").path("sha").asText(null);
+        if (sha == null) {
+            throw new IOException("获取分支 SHA 失败: " + response);
         }
-        throw new RuntimeException("获取分支 SHA 失败: " + response.getBody());
-    }
-
-    private String parseShaFromResponse(String responseBody) {
-        int startIndex = responseBody.indexOf("\"sha\":\"") + 7;
-        int endIndex = responseBody.indexOf("\"", startIndex);
-        return responseBody.substring(startIndex, endIndex);
+        return sha;
     }
 
 
     private List<GitHubTreeItem> getRepoTree(GitHubRequestInfo gitHubRequestInfo,String sha) throws IOException {
-        String url = String.format("https://api.github.com/repos/%s/%s/git/trees/%s?recursive=1", gitHubRequestInfo.getOwner(),gitHubRequestInfo.getRepo(), sha);
-        JsonNode response = HttpUtil.get(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion());
-        List<GitHubTreeItem> tree = new ArrayList<>();
-        for (JsonNode item : response.get("tree")) {
-            tree.add(new GitHubTreeItem(
-                    item.get("path").asText(),
-                    item.get("type").asText()
-            ));
-        }
-
-        return tree;
+        String url = String.format("%s/repos/%s/%s/git/trees/%s?recursive=1", apiBaseUrl, gitHubRequestInfo.getOwner(),gitHubRequestInfo.getRepo(), sha);
+        JsonNode response = StageTimer.time(AnalysisStage.TREE_FETCH,
+                () -> httpUtil.getRevalidated(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion()));
+        return RepoFileService.treeItems(response, "");
     }
 
-    private RelevantFiles findRelevantFiles(List<GitHubTreeItem> tree) {
+    /**
+     * 从仓库文件树中筛选控制器和数据类，并建立类名索引
+     */
+    public RelevantFiles findRelevantFiles(List<GitHubTreeItem> tree) {
         List<String> controllers = new ArrayList<>();
         Map<String, String> dataClasses = new HashMap<>();
+        Map<String, String> qualifiedDataClasses = new HashMap<>();
+        Map<String, List<String>> duplicateQualifiedDataClasses = new HashMap<>();
+        Map<String, String> blobShas = new HashMap<>();
 
         for (GitHubTreeItem item : tree) {
             if ("blob".equals(item.getType()) && item.getPath() != null && item.getPath().endsWith(".java")) {
@@ -208,6 +649,7 @@ public class GithubService {
                 // 判断是否为 Controller
                 if (isControllerPath(pathLower)) {
                     controllers.add(item.getPath());
+                    blobShas.put(item.getPath(), item.getSha());
                     if (logger.isDebugEnabled()) { // 仅在调试模式下记录日志
                         logger.debug("找到 Controller: {}", item.getPath());
                     }
@@ -217,6 +659,15 @@ public class GithubService {
                     try {
                         String className = extractClassName(item.getPath());
                         dataClasses.put(className, item.getPath());
+                        blobShas.put(item.getPath(), item.getSha());
+                        String qualifiedName = JavaTypeUtil.qualifiedNameFromPath(item.getPath());
+                        if (qualifiedName != null) {
+                            String previous = qualifiedDataClasses.put(qualifiedName, item.getPath());
+                            if (previous != null) {
+                                duplicateQualifiedDataClasses.computeIfAbsent(qualifiedName, key -> new ArrayList<>(List.of(previous)))
+                                        .add(item.getPath());
+                            }
+                        }
                         if (logger.isDebugEnabled()) { // 仅在调试模式下记录日志
                             logger.debug("找到数据类: {}, 路径: {}", className, item.getPath());
                         }
@@ -230,6 +681,10 @@ public class GithubService {
         RelevantFiles result = new RelevantFiles();
         result.setControllers(controllers);
         result.setDataClasses(dataClasses);
+        result.setBlobShas(blobShas);
+        result.setClassIndex(new ClassNameIndex(dataClasses));
+        result.setQualifiedDataClasses(qualifiedDataClasses);
+        result.setDuplicateQualifiedDataClasses(duplicateQualifiedDataClasses);
         return result;
     }
 
@@ -265,10 +720,13 @@ public class GithubService {
 
         List<String> profiles = new ArrayList<>();
         List<String> controllers = new ArrayList<>();
+        Map<String, String> blobShas = new HashMap<>();
 
         if (tree == null || tree.isEmpty()) {
             logger.warn("GitHubTreeItem 列表为空或未提供");
-            return new RelevantFiles(); // 返回空结果
+            RelevantFiles empty = new RelevantFiles(); // 返回空结果
+            empty.setBlobShas(blobShas);
+            return empty;
         }
 
         for (GitHubTreeItem item : tree) {
@@ -278,9 +736,11 @@ public class GithubService {
                 // 精确匹配控制器文件
                 if (fileName.contains("/controller/") || fileName.endsWith("controller.java")) {
                     controllers.add(item.getPath());
+                    blobShas.put(item.getPath(), item.getSha());
                 } else if (profileFileNames.stream().anyMatch(fileName::contains)) {
                     // 精确匹配配置文件
                     profiles.add(item.getPath());
+                    blobShas.put(item.getPath(), item.getSha());
                 }
             }
         }
@@ -288,6 +748,7 @@ public class GithubService {
         RelevantFiles result = new RelevantFiles();
         result.setProfiles(profiles);
         result.setControllers(controllers);
+        result.setBlobShas(blobShas);
 
         // 集中输出日志
         if (!profiles.isEmpty()) {
@@ -301,174 +762,346 @@ public class GithubService {
     }
 
     public String getFileContent(String path, GitHubRequestInfo gitHubRequestInfo) throws IOException {
-        if (FILE_CACHE.containsKey(path)) {
-            return FILE_CACHE.get(path);
+        return getFileContent(path, null, gitHubRequestInfo);
+    }
+
+    /**
+     * 获取文件内容。已知 blob SHA 时按 SHA 读缓存，未命中则通过 git/blobs 接口按 SHA 拉取，
+     * 保证缓存内容与 SHA 严格对应；SHA 未知时退回 contents 接口且不缓存。
+     */
+    public String getFileContent(String path, String sha, GitHubRequestInfo gitHubRequestInfo) throws IOException {
+        String cached = blobCache.get(sha);
+        if (cached != null) {
+            return cached;
+        }
+        if (sha == null) {
+            return fetchFileContent(path, null, gitHubRequestInfo);
         }
-        String url = String.format("https://api.github.com/repos/%s/%s/contents/%s?ref=%s", gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), path, gitHubRequestInfo.getBranch());
-        JsonNode response = HttpUtil.get(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion());
+        // 同一 blob 的并发请求（多个控制器引用同一 DTO、并发分析同一仓库）只拉取一次
+        return blobFetches.execute(sha, () -> {
+            String loaded = blobCache.get(sha);
+            return loaded != null ? loaded : fetchFileContent(path, sha, gitHubRequestInfo);
+        });
+    }
+
+    private String fetchFileContent(String path, String sha, GitHubRequestInfo gitHubRequestInfo) throws IOException {
+        String url = sha != null
+                ? String.format("%s/repos/%s/%s/git/blobs/%s", apiBaseUrl, gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), sha)
+                : String.format("%s/repos/%s/%s/contents/%s?ref=%s", apiBaseUrl, gitHubRequestInfo.getOwner(), gitHubRequestInfo.getRepo(), path, gitHubRequestInfo.getBranch());
+        JsonNode response = StageTimer.time(AnalysisStage.FILE_FETCH,
+                () -> httpUtil.get(url, gitHubRequestInfo.getToken(), gitHubRequestInfo.getGithubApiVersion()));
         String content = response.get("content").asText();
-        String cleanedContent = content.replaceAll("\\n|\\r", "").trim();
         String decoded;
         try {
-            decoded = new String(Base64.getDecoder().decode(cleanedContent), StandardCharsets.UTF_8);
+            // GitHub 返回的 base64 每 60 个字符换行，MIME 解码器直接跳过换行，无需先用正则清理
+            decoded = StageTimer.time(AnalysisStage.BASE64_DECODE,
+                    () -> new String(Base64.getMimeDecoder().decode(content), StandardCharsets.UTF_8));
         } catch (IllegalArgumentException e) {
             logger.error("Base64 解码失败: {}, 路径: {}", e.getMessage(), path);
             return null;
         }
-        FILE_CACHE.put(path, decoded);
+        blobCache.put(sha, decoded);
         return decoded;
     }
 
-    public String parseController(String content, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) {
+    public CacheStats getBlobCacheStats() {
+        return blobCache.stats();
+    }
+
+    public long getBlobCacheSize() {
+        return blobCache.size();
+    }
+
+    public String parseController(String content, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) throws RateLimitExceededException {
+        ControllerAnalysis analysis = parseControllerTypes(new ControllerAnalysis(null, content));
+        return renderController(resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo));
+    }
+
+    // 流水线 fetch 阶段：获取控制器源码，获取不到时跳过该控制器
+    private ControllerAnalysis fetchController(String path, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) throws IOException {
+        String sha = relevantFiles.getBlobShas().get(path);
+        String content = getFileContent(path, sha, gitHubRequestInfo);
+        if (content == null) {
+            return null;
+        }
+        ControllerAnalysis analysis = new ControllerAnalysis(path, content);
+        analysis.setBlobSha(sha);
+        return analysis;
+    }
+
+    // 流水线 parse 阶段：解析方法的入参、出参类型，展开泛型参数，如 ResponseEntity<List<UserDTO>> -> UserDTO
+    private ControllerAnalysis parseControllerTypes(ControllerAnalysis analysis) {
+        String content = analysis.getContent();
+        ControllerSignature signature = controllerSignatureCache.get(analysis.getBlobSha(), key -> parseControllerSignature(content));
+        if (signature == null) {
+            analysis.setContent(null);
+            return analysis;
+        }
+        analysis.setPackageName(signature.getPackageName());
+        analysis.setImports(signature.getImports());
+        analysis.getParamClasses().addAll(signature.getParamClasses());
+        analysis.getReturnClasses().addAll(signature.getReturnClasses());
+        return analysis;
+    }
+
+    // 只解析声明：方法体替换为空块后再解析，预处理无法判断或解析失败时改用完整解析
+    private CompilationUnit parseDeclarations(String content) {
+        String declarations = DeclarationExtractor.stripBodies(content);
+        if (declarations != null) {
+            try {
+                return JavaParsers.parse(declarations);
+            } catch (ParseProblemException e) {
+                logger.debug("声明解析失败，改用完整解析: {}", e.getMessage());
+            }
+        }
+        return JavaParsers.parse(content);
+    }
+
+    private ControllerSignature parseControllerSignature(String content) {
         try {
-            CompilationUnit cu = StaticJavaParser.parse(content);
-            Set<String> paramClasses = new HashSet<>();
-            Set<String> returnClasses = new HashSet<>();
-            List<String> skippedClasses = new ArrayList<>();
+            CompilationUnit cu = signatureOnly ? parseDeclarations(content) : JavaParsers.parse(content);
+            Set<String> classTypeParameters = typeParameterNames(cu);
+            Set<String> paramClasses = new LinkedHashSet<>();
+            Set<String> returnClasses = new LinkedHashSet<>();
 
             // 解析方法
             for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+                // 方法及类上的泛型变量（如 T）不是具体类型
+                Set<String> typeParameters = new HashSet<>(classTypeParameters);
+                method.getTypeParameters().forEach(tp -> typeParameters.add(tp.getNameAsString()));
+
                 // 入参
+                Set<String> params = new LinkedHashSet<>();
                 for (Parameter param : method.getParameters()) {
-                    String typeName = param.getTypeAsString();
-                    if (!isPrimitiveType(typeName)) {
-                        paramClasses.add(typeName);
-                    }
+                    JavaTypeUtil.collectTypeNames(param.getType(), params);
                 }
+                params.removeAll(typeParameters);
+                paramClasses.addAll(params);
 
                 // 出参
-                Type returnType = method.getType();
-                String returnTypeName = returnType.asString();
-                if (!"void".equals(returnTypeName) && !isPrimitiveType(returnTypeName)) {
-                    returnClasses.add(returnTypeName);
-                }
+                Set<String> returns = new LinkedHashSet<>();
+                JavaTypeUtil.collectTypeNames(method.getType(), returns);
+                returns.removeAll(typeParameters);
+                returnClasses.addAll(returns);
             }
+            return new ControllerSignature(JavaTypeUtil.packageName(cu), JavaTypeUtil.importMap(cu), paramClasses, returnClasses);
+        } catch (Exception e) {
+            logger.error("解析错误: {}", e.getMessage());
+            return null;
+        }
+    }
 
-//            // 构建 import 映射
-//            Map<String, String> importMap = new HashMap<>();
-//            cu.getImports().forEach(importDecl -> {
-//                String packagePath = importDecl.getNameAsString();
-//                String className = packagePath.substring(packagePath.lastIndexOf('.') + 1);
-//                String javaPath = packagePath.replace('.', '/') + ".java";
-//                importMap.put(className, javaPath);
-//            });
-
-            // 获取 dataClasses
-            Map<String, String> dataClasses = relevantFiles.getDataClasses();
-
-            // 获取入参源代码
-//            List<String> params = new ArrayList<>();
-            StringBuilder params = new StringBuilder();
-            for (String className : paramClasses) {
-                // 跳过原始类型
-                if (isPrimitiveType(className)) {
-//                    logger.info("跳过原始类型: {}", className);
-                    continue;
-                }
+    // 流水线 resolve 阶段：查找入参、出参对应的数据类及其嵌套引用的数据类，并获取源码
+    private ControllerAnalysis resolveDataClasses(ControllerAnalysis analysis, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo,
+                                                  AnalysisProgress progress) throws RateLimitExceededException {
+        progress.checkCancelled();
+        ControllerAnalysis resolved = resolveDataClasses(analysis, relevantFiles, gitHubRequestInfo);
+        progress.resolved(resolved.getDtoPaths().size());
+        return resolved;
+    }
+
+    // 耗时包含获取数据类源码，其中的网络请求同时计入 file_fetch
+    private ControllerAnalysis resolveDataClasses(ControllerAnalysis analysis, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo)
+            throws RateLimitExceededException {
+        return StageTimer.time(AnalysisStage.DTO_RESOLVE, () -> findDataClasses(analysis, relevantFiles, gitHubRequestInfo));
+    }
+
+    // 速率配额耗尽时抛出，使整次分析失败；其他失败只影响当前控制器
+    private ControllerAnalysis findDataClasses(ControllerAnalysis analysis, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo)
+            throws RateLimitExceededException {
+        if (analysis.getContent() == null) {
+            return analysis;
+        }
+        try {
+            List<String> skippedClasses = new ArrayList<>();
 
-                // 查找 dataClasses（精确或模糊匹配）
-                String path = findMatchingClass(className, dataClasses);
+            // 先入参后出参，同一个数据类只输出一次
+            List<String> classNames = new ArrayList<>(analysis.getParamClasses());
+            classNames.addAll(analysis.getReturnClasses());
+            Set<String> dtoPaths = new LinkedHashSet<>();
+            for (String className : classNames) {
+                // 按 import、同包、类名索引（精确或模糊匹配）的顺序查找
+                String path = resolveDataClassPath(className, analysis.getPackageName(), analysis.getImports(), analysis.getPath(), relevantFiles);
                 if (path != null) {
-                    String code = getFileContent(path, gitHubRequestInfo);
-                    if (code != null) {
-                        params.append(cleanCode(code));
-//                        logger.info("找到入参类: {}, 路径: {}", className, path);
-                    }
+                    dtoPaths.addAll(resolveDtoClosure(path, relevantFiles, gitHubRequestInfo));
                 } else {
-//                    logger.info("未找到入参类: {}，可能是跨模块", className);
                     skippedClasses.add(className + " (未找到，可能跨模块)");
                 }
             }
-
-            // 获取出参源代码
-//            List<String> returns = new ArrayList<>();
-            StringBuilder returns = new StringBuilder();
-            for (String className : returnClasses) {
-                // 跳过原始类型
-                if (isPrimitiveType(className)) {
-//                    logger.info("跳过原始类型: {}", className);
-                    continue;
-                }
-
-                // 查找 dataClasses
-                String path = findMatchingClass(className, dataClasses);
-                if (path != null) {
-                    String code = getFileContent(path, gitHubRequestInfo);
-                    if (code != null) {
-                        returns.append(cleanCode(code));
-//                        logger.info("找到出参类: {}, 路径: {}", className, path);
-                    }
+            for (String path : dtoPaths) {
+                String code = getFileContent(path, relevantFiles.getBlobShas().get(path), gitHubRequestInfo);
+                if (code != null) {
+                    analysis.getDtoSources().add(code);
+                    analysis.getDtoPaths().add(path);
                 } else {
-//                    logger.info("未找到出参类: {}，可能是跨模块", className);
-                    skippedClasses.add(className + " (未找到，可能跨模块)");
+                    analysis.getFailedDtoPaths().add(path);
+                    analysis.setPartial(true);
                 }
             }
-
-            // 记录跳过的类
-//            if (!skippedClasses.isEmpty()) {
-//                try (FileWriter writer = new FileWriter(getLastAnalysisFilePath(), StandardCharsets.UTF_8, true)) {
-//                    writer.write("跳过的类:\n");
-//                    for (String skipped : skippedClasses) {
-//                        writer.write("- " + skipped + "\n");
-//                    }
-//                    writer.write("\n");
-//                }
-//            }
-            StringBuilder stringBuilder = new StringBuilder(cleanCode(content)).append(params).append(returns);
-            return stringBuilder.toString();
-
+            if (logger.isDebugEnabled() && !skippedClasses.isEmpty()) {
+                logger.debug("跳过的类: {}", skippedClasses);
+            }
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("解析错误: {}", e.getMessage());
-            return "";
+            analysis.setContent(null);
+            analysis.setPartial(true);
         }
+        return analysis;
     }
 
-    private String findMatchingClass(String className, Map<String, String> dataClasses) {
-        // 精确匹配
-        if (dataClasses.containsKey(className)) {
-            return dataClasses.get(className);
+    /**
+     * 查找 fromPath 中引用的类名对应的数据类路径：先按 import 的全限定名，再按同包，最后按类名索引匹配
+     */
+    private String resolveDataClassPath(String className, String packageName, Map<String, String> imports, String fromPath,
+                                        RelevantFiles relevantFiles) {
+        String qualifiedName = imports.get(className);
+        if (qualifiedName != null) {
+            String path = qualifiedDataClassPath(qualifiedName, fromPath, relevantFiles);
+            if (path != null) {
+                return path;
+            }
+            if (EXTERNAL_PACKAGES.stream().anyMatch(qualifiedName::startsWith)) {
+                return null;
+            }
+        } else if (packageName != null && !packageName.isEmpty()) {
+            String path = qualifiedDataClassPath(packageName + "." + className, fromPath, relevantFiles);
+            if (path != null) {
+                return path;
+            }
         }
+        return relevantFiles.getClassIndex().find(className);
+    }
 
-        // 模糊匹配
-        for (String dataClassName : dataClasses.keySet()) {
-            if (dataClassName.toLowerCase().contains(className.toLowerCase())) {
-//                logger.info("模糊匹配类: {} -> {}", className, dataClassName);
-                return dataClasses.get(dataClassName);
+    // 全限定名对应多个路径时取与引用方路径公共前缀最长的一个，即同一模块中的类；长度相同时取仓库树中靠前的
+    private String qualifiedDataClassPath(String qualifiedName, String fromPath, RelevantFiles relevantFiles) {
+        List<String> candidates = relevantFiles.getDuplicateQualifiedDataClasses().get(qualifiedName);
+        if (candidates == null) {
+            return relevantFiles.getQualifiedDataClasses().get(qualifiedName);
+        }
+        String best = candidates.get(0);
+        int bestLength = commonPrefixLength(best, fromPath);
+        for (String candidate : candidates) {
+            int length = commonPrefixLength(candidate, fromPath);
+            if (length > bestLength) {
+                best = candidate;
+                bestLength = length;
             }
         }
+        return best;
+    }
 
-        return null;
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
     }
 
-    private boolean isPrimitiveType(String type) {
-        return PRIMITIVE_TYPES.contains(type.toLowerCase());
+    /**
+     * 获取数据类及其字段引用的数据类（最多 dtoDepth 层）。
+     * 结果按路径在本次分析内缓存，被多个控制器引用的数据类只解析一次；不按 blob SHA 缓存，
+     * 不同模块中内容相同的数据类引用的是各自模块中的类
+     */
+    private List<String> resolveDtoClosure(String rootPath, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) throws IOException {
+        List<String> cached = relevantFiles.getDtoClosures().get(rootPath);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 按层广度优先遍历，visited 防止循环引用
+        Set<String> visited = new LinkedHashSet<>();
+        visited.add(rootPath);
+        List<String> level = List.of(rootPath);
+        for (int depth = 0; depth < dtoDepth && !level.isEmpty(); depth++) {
+            List<String> next = new ArrayList<>();
+            for (String path : level) {
+                TypeSummary summary = getTypeSummary(path, relevantFiles, gitHubRequestInfo);
+                if (summary == null) {
+                    continue;
+                }
+                for (String typeName : summary.getReferencedTypes()) {
+                    String referenced = resolveDataClassPath(typeName, summary.getPackageName(), summary.getImports(), path, relevantFiles);
+                    if (referenced != null && visited.add(referenced)) {
+                        next.add(referenced);
+                    }
+                }
+            }
+            level = next;
+        }
+
+        List<String> closure = List.copyOf(visited);
+        List<String> existing = relevantFiles.getDtoClosures().putIfAbsent(rootPath, closure);
+        return existing != null ? existing : closure;
     }
 
-    private String cleanCode(String code) {
-        if (code == null) {
-            return "";
+    // 获取数据类的解析摘要，按 blob SHA 全局缓存
+    private TypeSummary getTypeSummary(String path, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo) throws IOException {
+        String sha = relevantFiles.getBlobShas().get(path);
+        String content = getFileContent(path, sha, gitHubRequestInfo);
+        if (content == null) {
+            return null;
         }
+        return typeSummaryCache.get(sha, key -> parseTypeSummary(path, content));
+    }
+
+    // 解析数据类：收集字段类型和父类型引用的业务类型，排除泛型变量和自身声明的内部类
+    private TypeSummary parseTypeSummary(String path, String content) {
         try {
-//            // 合并正则表达式，减少多次调用 replaceAll 的开销
-//            // 1. 移除 package 和 import 语句
-//            // 2. 移除换行符、回车符和制表符，并压缩多余空格
-            String cleaned = code.replaceAll(
-                    "(package\\s+[^;]+;|import\\s+[^;]+;|\\n|\\r|\\t|\\s{2,})", " "
-            );
-
-            // 3. 移除所有注释（单行、多行、文档注释）TODO 可能会误删内容
-//            cleaned = cleaned.replaceAll(
-//                    "(?s)/\\*\\*?.*?\\*/|//.*", " "
-//            );
-
-            // 4. 移除 log.info(XXX);、log.error(XXX); 和 System.out.println(XXX); 语句
-
-            // 移除首尾空格并返回结果
-            return cleaned.trim();
+            CompilationUnit cu = JavaParsers.parse(content);
+            Set<String> referenced = new LinkedHashSet<>();
+            for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+                if (field.isStatic()) {
+                    continue;
+                }
+                field.getVariables().forEach(variable -> JavaTypeUtil.collectTypeNames(variable.getType(), referenced));
+            }
+            for (ClassOrInterfaceDeclaration declaration : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+                for (ClassOrInterfaceType superType : declaration.getExtendedTypes()) {
+                    JavaTypeUtil.collectTypeNames(superType, referenced);
+                }
+            }
+            referenced.removeAll(typeParameterNames(cu));
+            cu.findAll(TypeDeclaration.class).forEach(declaration -> referenced.remove(declaration.getNameAsString()));
+            return new TypeSummary(JavaTypeUtil.packageName(cu), JavaTypeUtil.importMap(cu), referenced);
         } catch (Exception e) {
-            // 捕获异常并记录日志（可根据实际需求调整）
-            logger.error("Error during code cleaning: {}" , e.getMessage());
-            return ""; // 返回空字符串以保证函数的稳定性
+            logger.warn("数据类解析失败: {}, 错误信息: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    // 类、接口上声明的泛型变量名
+    private Set<String> typeParameterNames(CompilationUnit cu) {
+        Set<String> names = new HashSet<>();
+        for (ClassOrInterfaceDeclaration declaration : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            for (TypeParameter typeParameter : declaration.getTypeParameters()) {
+                names.add(typeParameter.getNameAsString());
+            }
+        }
+        return names;
+    }
+
+    // 流水线 render 阶段：清理并拼接控制器与数据类源码，解析失败时输出空字符串
+    private String renderController(ControllerAnalysis analysis) {
+        if (analysis.getContent() == null) {
+            return "";
         }
+        StringBuilder stringBuilder = new StringBuilder(cleanCode(analysis.getContent()));
+        for (String code : analysis.getDtoSources()) {
+            stringBuilder.append(cleanCode(code));
+        }
+        return stringBuilder.toString();
+    }
+
+    public PipelineStats getPipelineStats() {
+        return pipeline.stats();
+    }
+
+    // 移除 package / import 语句并压缩空白，按配置移除注释
+    private String cleanCode(String code) {
+        return StageTimer.time(AnalysisStage.CLEAN_CODE, () -> CodeCleaner.clean(code, stripComments));
     }
 }
\ No newline at end of file
@@ -1,58 +1,99 @@
 package com.lps.tools.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.lps.tools.metrics.AnalysisStage;
+import com.lps.tools.metrics.StageTimer;
 import com.lps.tools.model.ApiDocumentation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author hhuang26
+ * @description 处理 LLM 生成的接口文档：每条输出是 ```json 代码块包裹的 JSON 对象，取出 apiInfo、cat 字段并修复转义符号，
+ * 拼接为「目录表格 + 各接口文档」的 Markdown。
+ * 使用共享的 JsonFactory 流式解析，代码块标识在读取时跳过，转义符号在写出时一次扫描修复，
+ * 不再为每条输出生成去掉标识的副本、Map 及多轮替换的中间字符串；结果直接写入 Writer（如响应流）。
+ * 排序模式（sorted）下各条输出在 ForkJoinPool 中并行解析，按 URL + 请求方法去重，目录按路径前缀分组排序，
+ * 输出只取决于输入内容、与输入顺序无关
  */
 @Service
 public class MarkdownFixerService {
-    public List<ApiDocumentation> fixMarkdown(List<String> arg1) throws Exception {
-        // 存储结果
-        List<ApiDocumentation> result = new ArrayList<>();
 
-        // 解析每个 JSON 对象字符串
-        ObjectMapper mapper = new ObjectMapper();
-        for (String jsonStr : arg1) {
-            // 清理代码块标识（如 ```json 和 ```）
-            String cleanedJson = jsonStr.replaceAll("```json\\n|```", "").trim();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private static final String TITLE = "# API Documentation\n"
+            + "# Endpoint List\n";
+    private static final String TABLE_HEADER = "| Endpoint URL | HTTP Method | Description |\n"
+            + "| --- | --- | --- |\n";
+    private static final String HEADER = TITLE + TABLE_HEADER;
+
+    /**
+     * 并行解析时每个子任务处理的输出条数
+     */
+    private static final int PARSE_BATCH = 16;
+
+    /**
+     * 无法从 cat 中识别 URL 的接口放在最后的分组
+     */
+    private static final String OTHER_GROUP = "Other";
 
-            // 解析 JSON 对象
-            Map<String, String> jsonObj = mapper.readValue(cleanedJson, Map.class);
+    private static final List<String> METHOD_ORDER = List.of("GET", "POST", "PUT", "PATCH", "DELETE");
 
-            // 获取 apiInfo 和 cat
-            String apiMd = jsonObj.get("apiInfo");
-            String line = jsonObj.get("cat");
+    /**
+     * 排序模式下并行解析的线程数，0 表示使用公共 ForkJoinPool
+     */
+    @Value("${tools.markdown.parallelism:0}")
+    private int parallelism;
 
-            // 修复转义符号
-            String fixedApiMd = fixEscapedChars(apiMd);
-            String fixedLine = fixEscapedChars(line);
+    /**
+     * 目录分组取 URL 的前几段路径，如 2 时 /api/user/{id} 归入 /api/user
+     */
+    @Value("${tools.markdown.group-depth:2}")
+    private int groupDepth = 2;
 
-            // 构造 ApiDocumentation 对象
-            ApiDocumentation doc = new ApiDocumentation(fixedApiMd, fixedLine);
+    private ForkJoinPool pool;
 
-            // 添加到结果
-            result.add(doc);
+    @PostConstruct
+    public void init() {
+        if (parallelism > 0) {
+            pool = new ForkJoinPool(parallelism);
         }
+    }
 
-        return result;
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
     }
 
-    // 修复转义符号
-    private String fixEscapedChars(String input) {
-        if (input == null) {
-            return null;
+    public List<ApiDocumentation> fixMarkdown(List<String> arg1) throws Exception {
+        List<ApiDocumentation> result = new ArrayList<>(arg1.size());
+        for (String jsonStr : arg1) {
+            ApiDocumentation doc = parseFragment(jsonStr);
+            result.add(new ApiDocumentation(fixEscapedChars(doc.getApiInfo()), fixEscapedChars(doc.getCat())));
         }
-        // 替换 \\n 为 \n，\\\" 为 "，\\t 为 \t
-        return input.replace("\\n", "\n")
-                   .replace("\\\"", "\"")
-                   .replace("\\t", "\t");
+        return result;
     }
 
     /**
@@ -61,45 +102,410 @@ public class MarkdownFixerService {
      * @return 拼接后的字符串
      */
     public String subMdToStr(List<String> args) throws Exception {
-        List<ApiDocumentation> apiDocs = fixMarkdown(args);
+        return StageTimer.time(AnalysisStage.MARKDOWN_FIX, () -> {
+            List<ApiDocumentation> docs = parseFragments(args);
+            StringWriter out = new StringWriter(estimateLength(docs));
+            write(docs, out);
+            return out.toString();
+        });
+    }
 
-        // 检查输入是否为空
-        if (apiDocs == null || apiDocs.isEmpty()) {
-            return "";
+    /**
+     * @param sorted true 时并行解析、按 URL + 请求方法去重，并按路径前缀分组排序
+     */
+    public String subMdToStr(List<String> args, boolean sorted) throws Exception {
+        if (!sorted) {
+            return subMdToStr(args);
         }
+        return StageTimer.time(AnalysisStage.MARKDOWN_FIX, () -> {
+            List<Endpoint> endpoints = organize(parseParallel(args));
+            StringWriter out = new StringWriter(estimateLength(endpoints.stream().map(Endpoint::doc).toList()));
+            writeSorted(endpoints, out);
+            return out.toString();
+        });
+    }
 
-        // 初始化 StringBuilder 用于拼接 cat 和 apiInfo
-        StringBuilder catMd = new StringBuilder();
-        StringBuilder apiMd = new StringBuilder();
+    /**
+     * 与 subMdToStr 相同，结果直接写入 out
+     */
+    public void writeMarkdown(List<String> args, Writer out) throws IOException {
+        StageTimer.time(AnalysisStage.MARKDOWN_FIX, () -> write(parseFragments(args), out));
+    }
 
-        catMd.append("# API Documentation\n");
-        catMd.append("# Endpoint List\n");
-        //为目录添加标题
-        catMd.append("| Endpoint URL | HTTP Method | Description |\n");
-        catMd.append("| --- | --- | --- |\n");
+    /**
+     * 从请求体流式读取 {"output": ["...", ...]}，结果直接写入 out。
+     * 请求体不会整体绑定为 ApiMdRequest，内存中只保留各条输出的 apiInfo、cat 字段
+     */
+    public void writeMarkdown(InputStream body, Writer out) throws IOException {
+        writeMarkdown(body, out, false);
+    }
 
-        // 遍历 ApiDocumentation 列表
-        for (ApiDocumentation doc : apiDocs) {
-            // 拼接 cat 字段
-            if (doc.getCat() != null && !doc.getCat().isEmpty()) {
-                catMd.append(doc.getCat()).append("\n");
+    /**
+     * @param sorted true 时先读出全部输出再并行解析、去重、排序，见 subMdToStr(List, boolean)
+     */
+    public void writeMarkdown(InputStream body, Writer out, boolean sorted) throws IOException {
+        if (!sorted) {
+            StageTimer.time(AnalysisStage.MARKDOWN_FIX, () -> write(parseRequest(body), out));
+            return;
+        }
+        StageTimer.time(AnalysisStage.MARKDOWN_FIX, () -> writeSorted(organize(parseParallel(readOutputs(body))), out));
+    }
+
+    private List<ApiDocumentation> parseFragments(List<String> args) throws IOException {
+        List<ApiDocumentation> docs = new ArrayList<>(args.size());
+        for (String arg : args) {
+            docs.add(parseFragment(arg));
+        }
+        return docs;
+    }
+
+    private List<ApiDocumentation> parseRequest(InputStream body) throws IOException {
+        List<ApiDocumentation> docs = new ArrayList<>();
+        forEachOutput(body, fragment -> docs.add(parseFragment(fragment)));
+        return docs;
+    }
+
+    private List<String> readOutputs(InputStream body) throws IOException {
+        List<String> outputs = new ArrayList<>();
+        forEachOutput(body, outputs::add);
+        return outputs;
+    }
+
+    // 依次取出请求体 output 数组中的每条输出，忽略其他字段；output 中的元素只能是字符串
+    private void forEachOutput(InputStream body, FragmentHandler handler) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "请求体应为 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"output".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                        throw new JsonParseException(parser, "output 数组的元素应为字符串");
+                    }
+                    handler.handle(parser.getText());
+                }
+            }
+        }
+    }
+
+    /**
+     * 在 ForkJoinPool 中并行解析，每个子任务把结果写入数组中对应的位置，不需要合并中间结果；
+     * 解析失败时与非排序模式一样抛出原来的 IOException
+     */
+    private Endpoint[] parseParallel(List<String> args) throws IOException {
+        Endpoint[] endpoints = new Endpoint[args.size()];
+        ForkJoinPool executor = pool != null ? pool : ForkJoinPool.commonPool();
+        try {
+            executor.invoke(new ParseTask(args, endpoints, 0, args.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return endpoints;
+    }
+
+    private Endpoint toEndpoint(ApiDocumentation doc) {
+        // cat 很短，先修复转义符号再识别 URL 和请求方法；apiInfo 在写出时修复
+        String cat = fixEscapedChars(doc.getCat());
+        String url = null;
+        String method = "";
+        if (cat != null) {
+            String[] cells = cat.split("\\|");
+            if (cells.length >= 3) {
+                url = normalizeUrl(cells[1]);
+                method = cells[2].trim().toUpperCase(Locale.ROOT);
+            }
+        }
+        String group = url == null ? OTHER_GROUP : group(url);
+        return new Endpoint(group, url, method, new ApiDocumentation(doc.getApiInfo(), cat));
+    }
+
+    // 去掉两侧空白及反引号，完整地址只保留路径
+    private static String normalizeUrl(String cell) {
+        String url = cell.trim();
+        while (url.length() > 1 && url.startsWith("`") && url.endsWith("`")) {
+            url = url.substring(1, url.length() - 1).trim();
+        }
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            int path = url.indexOf('/', scheme + 3);
+            url = path >= 0 ? url.substring(path) : "/";
+        }
+        return url.startsWith("/") ? url : null;
+    }
+
+    // 取前 groupDepth 段路径，遇到路径变量或查询参数时提前结束
+    private String group(String url) {
+        int end = 0;
+        for (int i = 0; i < groupDepth && end < url.length() && url.charAt(end) == '/'; i++) {
+            int start = end + 1;
+            if (start >= url.length() || url.charAt(start) == '{' || url.charAt(start) == '?') {
+                break;
+            }
+            end = start;
+            while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+                end++;
+            }
+        }
+        return end == 0 ? "/" : url.substring(0, end);
+    }
+
+    /**
+     * 按 URL + 请求方法去重，再按 分组 → URL → 请求方法 排序。
+     * 重复的接口保留 apiInfo 最长的一条（长度相同时取字典序较小的），选择结果与输入顺序无关
+     */
+    private static List<Endpoint> organize(Endpoint[] parsed) {
+        Map<String, Endpoint> unique = new HashMap<>(parsed.length * 2);
+        List<Endpoint> endpoints = new ArrayList<>(parsed.length);
+        for (Endpoint endpoint : parsed) {
+            if (endpoint.url() == null) {
+                endpoints.add(endpoint);
+                continue;
             }
+            unique.merge(endpoint.method() + " " + endpoint.url(), endpoint,
+                    (current, candidate) -> PREFERENCE.compare(candidate, current) < 0 ? candidate : current);
+        }
+        endpoints.addAll(unique.values());
+        endpoints.sort(ORDER);
+        return endpoints;
+    }
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final Comparator<Endpoint> PREFERENCE = Comparator
+            .comparingInt((Endpoint endpoint) -> endpoint.doc().getApiInfo() == null ? 0 : endpoint.doc().getApiInfo().length())
+            .reversed()
+            .thenComparing(endpoint -> endpoint.doc().getApiInfo(), NULLS_FIRST)
+            .thenComparing(endpoint -> endpoint.doc().getCat(), NULLS_FIRST);
+
+    private static final Comparator<Endpoint> ORDER = Comparator
+            .comparing((Endpoint endpoint) -> endpoint.url() == null)
+            .thenComparing(Endpoint::group)
+            .thenComparing(Endpoint::url, NULLS_FIRST)
+            .thenComparingInt(endpoint -> methodRank(endpoint.method()))
+            .thenComparing(Endpoint::method)
+            .thenComparing(PREFERENCE);
+
+    private static int methodRank(String method) {
+        int rank = METHOD_ORDER.indexOf(method);
+        return rank < 0 ? METHOD_ORDER.size() : rank;
+    }
+
+    // 目录按分组输出，每个分组一个二级标题和表格；接口文档按相同顺序输出
+    private static Void writeSorted(List<Endpoint> endpoints, Writer out) throws IOException {
+        if (endpoints.isEmpty()) {
+            return null;
+        }
+        out.write(TITLE);
+        String group = null;
+        for (Endpoint endpoint : endpoints) {
+            String cat = endpoint.doc().getCat();
+            if (cat == null || cat.isEmpty()) {
+                continue;
+            }
+            if (!endpoint.group().equals(group)) {
+                group = endpoint.group();
+                out.write("## ");
+                out.write(group);
+                out.write('\n');
+                out.write(TABLE_HEADER);
+            }
+            out.write(cat);
+            out.write('\n');
+        }
+        for (Endpoint endpoint : endpoints) {
+            String apiInfo = endpoint.doc().getApiInfo();
+            if (apiInfo != null && !apiInfo.isEmpty()) {
+                fixEscapedChars(apiInfo, out);
+                out.write('\n');
+            }
+        }
+        out.flush();
+        return null;
+    }
 
-            // 拼接 apiInfo 字段
+    /**
+     * 解析单条输出，返回未修复转义符号的 apiInfo、cat（修复在写出时进行）。
+     * apiInfo、cat 只接受字符串或 null，其他字段忽略
+     */
+    private ApiDocumentation parseFragment(String fragment) throws IOException {
+        String apiInfo = null;
+        String cat = null;
+        try (JsonParser parser = jsonFactory.createParser(new FenceSkippingReader(fragment))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "LLM 输出应为 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("apiInfo".equals(field)) {
+                    apiInfo = stringValue(parser, value, field);
+                } else if ("cat".equals(field)) {
+                    cat = stringValue(parser, value, field);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new ApiDocumentation(apiInfo, cat);
+    }
+
+    private static String stringValue(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, field + " 应为字符串");
+        }
+        return parser.getText();
+    }
+
+    // 先输出全部 cat 组成目录表格，再输出全部 apiInfo
+    private static Void write(List<ApiDocumentation> docs, Writer out) throws IOException {
+        if (docs.isEmpty()) {
+            return null;
+        }
+        out.write(HEADER);
+        for (ApiDocumentation doc : docs) {
+            if (doc.getCat() != null && !doc.getCat().isEmpty()) {
+                fixEscapedChars(doc.getCat(), out);
+                out.write('\n');
+            }
+        }
+        for (ApiDocumentation doc : docs) {
             if (doc.getApiInfo() != null && !doc.getApiInfo().isEmpty()) {
-                apiMd.append(doc.getApiInfo()).append("\n");
+                fixEscapedChars(doc.getApiInfo(), out);
+                out.write('\n');
             }
         }
+        out.flush();
+        return null;
+    }
 
-        // 拼接 catMd 和 apiMd
-        StringBuilder output = new StringBuilder();
-        if (!catMd.isEmpty()) {
-            output.append(catMd);
+    private static int estimateLength(List<ApiDocumentation> docs) {
+        long length = HEADER.length();
+        for (ApiDocumentation doc : docs) {
+            length += (doc.getCat() == null ? 0 : doc.getCat().length() + 1)
+                    + (doc.getApiInfo() == null ? 0 : doc.getApiInfo().length() + 1);
         }
-        if (!apiMd.isEmpty()) {
-            output.append(apiMd);
+        return (int) Math.min(length, Integer.MAX_VALUE - 16);
+    }
+
+    // 修复转义符号
+    private static String fixEscapedChars(String input) {
+        if (input == null || input.indexOf('\\') < 0) {
+            return input;
+        }
+        StringWriter out = new StringWriter(input.length());
+        try {
+            fixEscapedChars(input, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 一次扫描把 \n、\"、\t 替换为换行、引号、制表符，其余反斜杠原样保留，
+     * 结果与依次执行三次 String.replace 相同（替换结果中不会产生新的转义序列）
+     */
+    private static void fixEscapedChars(String input, Writer out) throws IOException {
+        int length = input.length();
+        int start = 0;
+        int i = input.indexOf('\\');
+        while (i >= 0 && i + 1 < length) {
+            char next = input.charAt(i + 1);
+            char replacement = next == 'n' ? '\n' : next == '"' ? '"' : next == 't' ? '\t' : 0;
+            if (replacement == 0) {
+                i = input.indexOf('\\', i + 1);
+                continue;
+            }
+            out.write(input, start, i - start);
+            out.write(replacement);
+            start = i + 2;
+            i = input.indexOf('\\', start);
+        }
+        out.write(input, start, length - start);
+    }
+
+    /**
+     * 解析后的接口：doc 中 cat 已修复转义符号，apiInfo 未修复；url 为 null 表示无法从 cat 中识别
+     */
+    private record Endpoint(String group, String url, String method, ApiDocumentation doc) {
+    }
+
+    @FunctionalInterface
+    private interface FragmentHandler {
+        void handle(String fragment) throws IOException;
+    }
+
+    /**
+     * 二分输出区间，不超过 PARSE_BATCH 条时直接解析
+     */
+    private class ParseTask extends RecursiveAction {
+        private final List<String> fragments;
+        private final Endpoint[] results;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<String> fragments, Endpoint[] results, int from, int to) {
+            this.fragments = fragments;
+            this.results = results;
+            this.from = from;
+            this.to = to;
         }
 
-        return output.toString();
+        @Override
+        protected void compute() {
+            if (to - from <= PARSE_BATCH) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        results[i] = toEndpoint(parseFragment(fragments.get(i)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(fragments, results, from, middle), new ParseTask(fragments, results, middle, to));
+        }
+    }
+
+    /**
+     * 读取时跳过代码块标识 ```json\n 和 ```（与原来的 replaceAll("```json\\n|```", "") 一致，字符串内的标识同样跳过）
+     */
+    private static class FenceSkippingReader extends Reader {
+        private final String source;
+        private int position;
+
+        FenceSkippingReader(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int end = source.length();
+            int count = 0;
+            while (count < length && position < end) {
+                char c = source.charAt(position);
+                if (c == '`' && source.startsWith("```", position)) {
+                    position += source.startsWith("json\n", position + 3) ? 8 : 3;
+                    continue;
+                }
+                buffer[offset + count++] = c;
+                position++;
+            }
+            return count == 0 && length > 0 ? -1 : count;
+        }
+
+        @Override
+        public void close() {
+        }
     }
-}
\ No newline at end of file
+}
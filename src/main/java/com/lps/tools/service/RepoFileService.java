@@ -0,0 +1,196 @@
+package com.lps.tools.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.lps.tools.config.GitHubAuthExchangeFilter;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.GitHubTreeItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author hhuang26
+ * @description 列出仓库中的全部文件。
+ * 使用一次 git/trees?recursive=1 请求获取整个仓库树；仓库过大导致 GitHub 截断结果时，
+ * 改为按层遍历非递归的子树，每层的请求并发数受 crawlConcurrency 限制。
+ * 公开仓库的下载地址与 contents 接口的 download_url 相同，直接按 raw 地址拼接；
+ * 私有仓库的 download_url 带有临时 token，按目录调用 contents 接口获取（每个目录一次请求）
+ */
+@Service
+public class RepoFileService {
+    private static final Logger logger = LoggerFactory.getLogger(RepoFileService.class);
+
+    @Autowired
+    private WebClient githubWebClient;
+
+    @Value("${tools.github.files.crawl-concurrency:8}")
+    private int crawlConcurrency;
+
+    @Value("${tools.github.raw-base-url:https://raw.githubusercontent.com}")
+    private String rawBaseUrl;
+
+    /**
+     * 输出文件的下载地址。公开仓库按仓库树顺序输出；私有仓库按目录分组输出，同一目录的文件相邻
+     */
+    public Flux<String> listDownloadUrls(GitHubRequestInfo info) {
+        String ref = info.getBranch();
+        return isPrivate(info).flatMapMany(isPrivate -> isPrivate
+                ? contentsDownloadUrls(info, listFiles(info))
+                : listFiles(info).map(item -> downloadUrl(rawBaseUrl, info, ref, item.getPath())));
+    }
+
+    /**
+     * 仓库中的全部文件（blob）
+     */
+    public Flux<GitHubTreeItem> listFiles(GitHubRequestInfo info) {
+        return fetchTree(info, info.getBranch(), true)
+                .flatMapMany(response -> {
+                    if (!response.path("truncated").asBoolean(false)) {
+                        return Flux.fromIterable(treeItems(response, "")).filter(item -> "blob".equals(item.getType()));
+                    }
+                    logger.info("{}/{} 仓库树被截断，改为逐层遍历子树", info.getOwner(), info.getRepo());
+                    String rootSha = response.path("sha").asText();
+                    return crawl(info, List.of(new GitHubTreeItem("", "tree", rootSha)));
+                });
+    }
+
+    /**
+     * 解析 git/trees 响应，prefix 为该树相对仓库根目录的路径
+     */
+    public static List<GitHubTreeItem> treeItems(JsonNode response, String prefix) {
+        List<GitHubTreeItem> items = new ArrayList<>();
+        for (JsonNode item : response.path("tree")) {
+            String path = item.get("path").asText();
+            items.add(new GitHubTreeItem(
+                    prefix.isEmpty() ? path : prefix + "/" + path,
+                    item.get("type").asText(),
+                    item.path("sha").asText(null)
+            ));
+        }
+        return items;
+    }
+
+    // 逐层遍历：当前层所有目录并发获取（并发数受限），文件直接输出，子目录进入下一层
+    private Flux<GitHubTreeItem> crawl(GitHubRequestInfo info, List<GitHubTreeItem> directories) {
+        if (directories.isEmpty()) {
+            return Flux.empty();
+        }
+        return Flux.fromIterable(directories)
+                .flatMapSequential(directory -> fetchTree(info, directory.getSha(), false)
+                        .map(response -> treeItems(response, directory.getPath())), crawlConcurrency)
+                .collectList()
+                .flatMapMany(levels -> {
+                    List<GitHubTreeItem> files = new ArrayList<>();
+                    List<GitHubTreeItem> next = new ArrayList<>();
+                    for (List<GitHubTreeItem> items : levels) {
+                        for (GitHubTreeItem item : items) {
+                            if ("blob".equals(item.getType())) {
+                                files.add(item);
+                            } else if ("tree".equals(item.getType())) {
+                                next.add(item);
+                            }
+                        }
+                    }
+                    return Flux.fromIterable(files).concatWith(Flux.defer(() -> crawl(info, next)));
+                });
+    }
+
+    // 响应中没有 private 字段时按私有仓库处理，contents 接口的地址对公开仓库同样可用
+    private Mono<Boolean> isPrivate(GitHubRequestInfo info) {
+        return githubWebClient.get()
+                .uri("/repos/{owner}/{repo}", info.getOwner(), info.getRepo())
+                .attributes(GitHubAuthExchangeFilter.credentials(info))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(repository -> repository.path("private").asBoolean(true));
+    }
+
+    // 按目录分组，每个目录调用一次 contents 接口
+    private Flux<String> contentsDownloadUrls(GitHubRequestInfo info, Flux<GitHubTreeItem> files) {
+        return files
+                .collect(LinkedHashMap<String, List<String>>::new, (directories, item) -> directories
+                        .computeIfAbsent(parent(item.getPath()), key -> new ArrayList<>()).add(item.getPath()))
+                .flatMapMany(directories -> Flux.fromIterable(directories.entrySet()))
+                .flatMapSequential(directory -> directoryDownloadUrls(info, directory.getKey(), directory.getValue()),
+                        crawlConcurrency);
+    }
+
+    // contents 接口每个目录最多返回 1000 项，列表中没有的文件逐个获取
+    private Flux<String> directoryDownloadUrls(GitHubRequestInfo info, String directory, List<String> paths) {
+        return fetchContents(info, directory)
+                .map(listing -> {
+                    Map<String, String> urls = new HashMap<>();
+                    for (JsonNode item : listing) {
+                        if (item.hasNonNull("download_url")) {
+                            urls.put(item.path("path").asText(), item.get("download_url").asText());
+                        }
+                    }
+                    return urls;
+                })
+                .flatMapMany(urls -> Flux.fromIterable(paths)
+                        .concatMap(path -> urls.containsKey(path)
+                                ? Mono.just(urls.get(path))
+                                : fetchContents(info, path).mapNotNull(file -> file.path("download_url").asText(null))));
+    }
+
+    private Mono<JsonNode> fetchContents(GitHubRequestInfo info, String path) {
+        return githubWebClient.get()
+                .uri(uriBuilder -> contentsUri(uriBuilder, info, path))
+                .attributes(GitHubAuthExchangeFilter.credentials(info))
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    // 路径的每一段作为单独的 URI 变量编码，"/" 不会被编码为 %2F
+    private static URI contentsUri(UriBuilder uriBuilder, GitHubRequestInfo info, String path) {
+        StringBuilder template = new StringBuilder("/repos/{owner}/{repo}/contents/");
+        List<Object> values = new ArrayList<>(List.of(info.getOwner(), info.getRepo()));
+        if (!path.isEmpty()) {
+            for (String segment : path.split("/")) {
+                template.append(values.size() > 2 ? "/" : "").append("{segment").append(values.size()).append('}');
+                values.add(segment);
+            }
+        }
+        values.add(info.getBranch());
+        return uriBuilder.path(template.toString()).queryParam("ref", "{ref}").build(values.toArray());
+    }
+
+    private static String parent(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+
+    private Mono<JsonNode> fetchTree(GitHubRequestInfo info, String treeish, boolean recursive) {
+        return githubWebClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/repos/{owner}/{repo}/git/trees/{tree}");
+                    if (recursive) {
+                        uriBuilder.queryParam("recursive", 1);
+                    }
+                    return uriBuilder.build(info.getOwner(), info.getRepo(), treeish);
+                })
+                .attributes(GitHubAuthExchangeFilter.credentials(info))
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private static String downloadUrl(String rawBaseUrl, GitHubRequestInfo info, String ref, String path) {
+        return rawBaseUrl + "/" + info.getOwner() + "/" + info.getRepo() + "/"
+                + UriUtils.encodePath(ref, StandardCharsets.UTF_8) + "/" + UriUtils.encodePath(path, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package com.lps.tools.store;
+
+import com.lps.tools.model.AnalysisSnapshot;
+
+/**
+ * @author hhuang26
+ * @description 分析结果存储，键为 owner/repo/branch 及影响结果的分析配置
+ */
+public interface AnalysisResultStore {
+
+    /**
+     * 读取最近一次分析的快照，不存在时返回 null
+     */
+    AnalysisSnapshot load(String key);
+
+    void save(String key, AnalysisSnapshot snapshot);
+}
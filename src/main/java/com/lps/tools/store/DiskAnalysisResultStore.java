@@ -0,0 +1,65 @@
+package com.lps.tools.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lps.tools.model.AnalysisSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * @author hhuang26
+ * @description 磁盘上的分析结果存储，快照以 JSON 保存，重启后可直接返回上次的分析结果
+ */
+@Component
+@ConditionalOnProperty(prefix = "tools.store", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DiskAnalysisResultStore implements AnalysisResultStore {
+    private static final Logger logger = LoggerFactory.getLogger(DiskAnalysisResultStore.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SegmentStore store;
+
+    public DiskAnalysisResultStore(@Value("${tools.store.dir:store}") String dir,
+                                   @Value("${tools.store.result-max-bytes:268435456}") long maxBytes,
+                                   @Value("${tools.store.segment-bytes:67108864}") long segmentBytes,
+                                   @Value("${tools.store.compact-ratio:0.5}") double compactRatio) throws IOException {
+        this.store = new SegmentStore(Path.of(dir, "results"), maxBytes, segmentBytes, compactRatio);
+    }
+
+    @Override
+    public AnalysisSnapshot load(String key) {
+        byte[] value = store.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(value, AnalysisSnapshot.class);
+        } catch (IOException e) {
+            logger.warn("分析结果反序列化失败: {}, 错误信息: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void save(String key, AnalysisSnapshot snapshot) {
+        try {
+            store.put(key, mapper.writeValueAsBytes(snapshot));
+        } catch (IOException e) {
+            logger.warn("分析结果写入磁盘失败: {}, 错误信息: {}", key, e.getMessage());
+        }
+    }
+
+    public SegmentStore getStore() {
+        return store;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+}
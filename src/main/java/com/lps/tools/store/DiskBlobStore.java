@@ -0,0 +1,57 @@
+package com.lps.tools.store;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * @author hhuang26
+ * @description 磁盘上的 blob 存储（BlobCache 的二级缓存），按 SHA 保存原始文件内容，重启后仍可用
+ */
+@Component
+@ConditionalOnProperty(prefix = "tools.store", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DiskBlobStore {
+    private static final Logger logger = LoggerFactory.getLogger(DiskBlobStore.class);
+
+    private final SegmentStore store;
+
+    public DiskBlobStore(@Value("${tools.store.dir:store}") String dir,
+                         @Value("${tools.store.blob-max-bytes:1073741824}") long maxBytes,
+                         @Value("${tools.store.segment-bytes:67108864}") long segmentBytes,
+                         @Value("${tools.store.compact-ratio:0.5}") double compactRatio) throws IOException {
+        this.store = new SegmentStore(Path.of(dir, "blobs"), maxBytes, segmentBytes, compactRatio);
+    }
+
+    public String get(String sha) {
+        return store.getString(sha);
+    }
+
+    /**
+     * 内容由 SHA 唯一确定，已存在时不再写入；写入失败只记录日志，不影响请求
+     */
+    public void put(String sha, String content) {
+        if (store.containsKey(sha)) {
+            return;
+        }
+        try {
+            store.putString(sha, content);
+        } catch (IOException e) {
+            logger.warn("blob 写入磁盘失败: {}, 错误信息: {}", sha, e.getMessage());
+        }
+    }
+
+    public SegmentStore getStore() {
+        return store;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+}
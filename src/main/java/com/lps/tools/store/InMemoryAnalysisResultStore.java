@@ -0,0 +1,70 @@
+package com.lps.tools.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lps.tools.model.AnalysisSnapshot;
+import com.lps.tools.model.ControllerSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * @author hhuang26
+ * @description 进程内的分析结果存储，按快照的估算大小加权淘汰，未启用磁盘存储（tools.store.enabled=false）时使用
+ */
+@Component
+@ConditionalOnProperty(prefix = "tools.store", name = "enabled", havingValue = "false")
+public class InMemoryAnalysisResultStore implements AnalysisResultStore {
+
+    private final Cache<String, AnalysisSnapshot> snapshots;
+
+    public InMemoryAnalysisResultStore(@Value("${tools.cache.analysis-result.max-bytes:134217728}") long maxBytes) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, AnalysisSnapshot snapshot) -> weigh(key, snapshot))
+                .build();
+    }
+
+    @Override
+    public AnalysisSnapshot load(String key) {
+        return snapshots.getIfPresent(key);
+    }
+
+    @Override
+    public void save(String key, AnalysisSnapshot snapshot) {
+        snapshots.put(key, snapshot);
+    }
+
+    // 按字符串内容估算（UTF-16 每个字符 2 字节），分析结果文本占绝大部分
+    private static int weigh(String key, AnalysisSnapshot snapshot) {
+        long chars = key.length() + length(snapshot.getCommitSha()) + length(snapshot.getBlobShas());
+        if (snapshot.getDataClassPaths() != null) {
+            for (String path : snapshot.getDataClassPaths()) {
+                chars += length(path);
+            }
+        }
+        if (snapshot.getControllers() != null) {
+            for (ControllerSnapshot controller : snapshot.getControllers()) {
+                chars += length(controller.getPath()) + length(controller.getBlobSha())
+                        + length(controller.getDependencies()) + length(controller.getResult());
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars * 2);
+    }
+
+    private static long length(Map<String, String> map) {
+        long chars = 0;
+        if (map != null) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                chars += length(entry.getKey()) + length(entry.getValue());
+            }
+        }
+        return chars;
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
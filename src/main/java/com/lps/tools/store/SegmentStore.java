@@ -0,0 +1,393 @@
+package com.lps.tools.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * @author hhuang26
+ * @description 追加写的磁盘键值存储。
+ * 数据按顺序追加到分段文件（segment-N.log），内存中维护 键 -> 位置 的索引，启动时扫描分段文件重建索引；
+ * 读操作使用 FileChannel 按位置读取，不加锁；写、压缩、淘汰串行执行。
+ * 各线程共享分段的 FileChannel，线程在 I/O 中被中断时通道会被关闭，此时重新打开通道并重试，不影响其他线程。
+ * 记录格式：[crc32][keyLength][valueLength][key][value]。同一个键重复写入时以最后一条为准。
+ * 已封存分段中的有效数据比例低于 compactRatio 时，将有效记录搬到当前分段后删除旧分段；
+ * 总大小超过 maxBytes 时从最早的分段开始整段删除。
+ */
+public class SegmentStore implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStore.class);
+
+    private static final int HEADER_BYTES = 12;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    /**
+     * 通道被中断关闭后重新打开并重试的次数上限
+     */
+    private static final int MAX_REOPEN_ATTEMPTS = 16;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final double compactRatio;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active;
+
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong evictedSegments = new AtomicLong();
+
+    /**
+     * @param dir          存储目录
+     * @param maxBytes     所有分段文件的总大小上限
+     * @param segmentBytes 单个分段文件大小，超过后切换到新分段
+     * @param compactRatio 封存分段的有效数据比例低于该值时压缩
+     */
+    public SegmentStore(Path dir, long maxBytes, long segmentBytes, double compactRatio) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+        this.compactRatio = compactRatio;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    public byte[] get(String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        try {
+            return read(location);
+        } catch (IOException e) {
+            // 分段文件可能刚被压缩或淘汰删除，按未命中处理
+            return null;
+        }
+    }
+
+    // 读取记录的值，文件长度不足时返回 null
+    private static byte[] read(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.valueLength);
+        return io(location.segment, channel -> {
+            buffer.clear();
+            long position = location.valueOffset;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    return null;
+                }
+                position += read;
+            }
+            return buffer.array();
+        });
+    }
+
+    public boolean containsKey(String key) {
+        return index.containsKey(key);
+    }
+
+    public String getString(String key) {
+        byte[] value = get(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public synchronized void put(String key, byte[] value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        Location location = append(keyBytes, value);
+        replace(key, location);
+        maintain();
+    }
+
+    public void putString(String key, String value) throws IOException {
+        put(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long totalBytes() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    public long liveBytes() {
+        long live = 0;
+        for (Segment segment : segments.values()) {
+            live += segment.liveBytes.get();
+        }
+        return live;
+    }
+
+    public long compactions() {
+        return compactions.get();
+    }
+
+    public long evictedSegments() {
+        return evictedSegments.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            io(segment, channel -> {
+                channel.force(false);
+                return null;
+            });
+            segment.close();
+        }
+    }
+
+    // 追加一条记录
+    private Location append(byte[] key, byte[] value) throws IOException {
+        int recordLength = HEADER_BYTES + key.length + value.length;
+        if (active.size > 0 && active.size + recordLength > segmentBytes) {
+            roll();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        crc.update(value);
+        ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+        buffer.putInt((int) crc.getValue()).putInt(key.length).putInt(value.length).put(key).put(value);
+        buffer.flip();
+
+        long offset = active.size;
+        // 按位置写入，重试时从头重写整条记录
+        io(active, channel -> {
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            return null;
+        });
+        active.size += recordLength;
+        return new Location(active, offset, recordLength, offset + HEADER_BYTES + key.length, value.length);
+    }
+
+    // 更新索引并维护各分段的有效字节数
+    private void replace(String key, Location location) {
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            previous.segment.liveBytes.addAndGet(-previous.recordLength);
+        }
+        location.segment.liveBytes.addAndGet(location.recordLength);
+    }
+
+    private void roll() throws IOException {
+        io(active, channel -> {
+            channel.force(false);
+            return null;
+        });
+        active = openSegment(active.id + 1);
+    }
+
+    // 压缩有效数据比例过低的封存分段，并在超过容量上限时淘汰最早的分段
+    private void maintain() throws IOException {
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment != active && segment.size > 0 && segment.liveBytes.get() < segment.size * compactRatio) {
+                compact(segment);
+            }
+        }
+        while (totalBytes() > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            index.entrySet().removeIf(entry -> entry.getValue().segment == oldest);
+            delete(oldest);
+            evictedSegments.incrementAndGet();
+            logger.info("存储超过容量上限，淘汰分段: {}", oldest.path.getFileName());
+        }
+    }
+
+    // 把分段中仍然有效的记录重新追加到当前分段，然后删除该分段；有记录读不出来时放弃压缩并保留该分段
+    private void compact(Segment segment) throws IOException {
+        List<Map.Entry<String, Location>> live = new ArrayList<>();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == segment) {
+                live.add(entry);
+            }
+        }
+        for (Map.Entry<String, Location> entry : live) {
+            byte[] value;
+            try {
+                value = read(entry.getValue());
+            } catch (IOException e) {
+                logger.warn("压缩分段 {} 时读取 {} 失败，保留该分段: {}", segment.path.getFileName(), entry.getKey(), e.getMessage());
+                return;
+            }
+            if (value == null) {
+                logger.warn("压缩分段 {} 时 {} 的记录不完整，保留该分段", segment.path.getFileName(), entry.getKey());
+                return;
+            }
+            replace(entry.getKey(), append(entry.getKey().getBytes(StandardCharsets.UTF_8), value));
+        }
+        delete(segment);
+        compactions.incrementAndGet();
+    }
+
+    private void delete(Segment segment) throws IOException {
+        segments.remove(segment.id);
+        segment.close();
+        Files.deleteIfExists(segment.path);
+    }
+
+    // 启动时按顺序扫描分段文件重建索引，遇到不完整或校验失败的记录时截断该分段的剩余部分
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = openSegment(id);
+            scan(segment);
+        }
+        if (segments.isEmpty()) {
+            active = openSegment(1);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        logger.info("存储 {} 加载完成: {} 个键, {} 个分段, {} 字节", dir, index.size(), segments.size(), totalBytes());
+    }
+
+    private void scan(Segment segment) throws IOException {
+        long fileSize = io(segment, FileChannel::size);
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= fileSize) {
+            long headerPosition = position;
+            io(segment, channel -> {
+                header.clear();
+                return channel.read(header, headerPosition);
+            });
+            header.flip();
+            int crcValue = header.getInt();
+            int keyLength = header.getInt();
+            int valueLength = header.getInt();
+            if (keyLength <= 0 || valueLength < 0) {
+                break;
+            }
+            // 损坏的长度字段可能很大，按 long 计算避免溢出
+            long recordLength = (long) HEADER_BYTES + keyLength + valueLength;
+            if (position + recordLength > fileSize) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(keyLength + valueLength);
+            long bodyPosition = position + HEADER_BYTES;
+            io(segment, channel -> {
+                body.clear();
+                return channel.read(body, bodyPosition);
+            });
+            CRC32 crc = new CRC32();
+            crc.update(body.array());
+            if ((int) crc.getValue() != crcValue) {
+                break;
+            }
+            String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            segment.size = position + recordLength;
+            replace(key, new Location(segment, position, (int) recordLength, position + HEADER_BYTES + keyLength, valueLength));
+            position += recordLength;
+        }
+        if (position < fileSize) {
+            logger.warn("分段 {} 在偏移 {} 处损坏，截断剩余 {} 字节", segment.path.getFileName(), position, fileSize - position);
+            long validLength = position;
+            io(segment, channel -> channel.truncate(validLength));
+        }
+        segment.size = position;
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path path = dir.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel);
+        segment.size = channel.size();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * 在分段的通道上执行 I/O。FileChannel 在执行 I/O 的线程被中断时会关闭，共享该通道的其他线程随之失败；
+     * 因此先清除中断标记再执行 I/O，I/O 期间仍被中断导致通道关闭时，分段未被删除就重新打开通道并重试。
+     * 结束后恢复中断标记，交由调用方按自己的方式响应中断
+     */
+    private static <T> T io(Segment segment, ChannelCall<T> call) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                FileChannel channel = segment.channel;
+                try {
+                    return call.call(channel);
+                } catch (ClosedChannelException e) {
+                    if (segment.closed || attempt >= MAX_REOPEN_ATTEMPTS) {
+                        throw e;
+                    }
+                    interrupted |= Thread.interrupted();
+                    segment.reopen(channel);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChannelCall<T> {
+        T call(FileChannel channel) throws IOException;
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path path;
+        private volatile FileChannel channel;
+        private final AtomicLong liveBytes = new AtomicLong();
+        private volatile long size;
+        private volatile boolean closed;
+
+        Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        // 多个线程同时发现通道被关闭时只重新打开一次
+        synchronized void reopen(FileChannel failed) throws IOException {
+            if (!closed && channel == failed) {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        }
+
+        synchronized void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private record Location(Segment segment, long recordOffset, int recordLength, long valueOffset, int valueLength) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.lps.tools.util;
+
+/**
+ * @author hhuang26
+ * @description 单次扫描压缩 Java 源码：移除 package / import 语句，连续空白（空格、制表符、换行）合并为一个空格，
+ * 可选移除注释。扫描时跟踪字符串、字符、文本块及注释状态，字面量内的内容原样保留，
+ * 不会像正则那样误删字符串或注释中出现的 "package ...;"、"//" 等内容。
+ * 输出写入线程复用的缓冲区，只在最后生成一次结果字符串
+ */
+public class CodeCleaner {
+
+    /**
+     * 缓冲区超过该容量时不再复用，避免个别超大文件长期占用内存
+     */
+    private static final int MAX_REUSED_CAPACITY = 1 << 20;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    private CodeCleaner() {
+    }
+
+    public static String clean(String code) {
+        return clean(code, false);
+    }
+
+    /**
+     * @param stripComments 是否移除单行、多行及文档注释（注释替换为一个空格）
+     */
+    public static String clean(String code, boolean stripComments) {
+        if (code == null) {
+            return "";
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            scan(code, stripComments, out);
+            // 去掉末尾的空格（开头的空白在扫描时已跳过）
+            int length = out.length();
+            if (length > 0 && out.charAt(length - 1) == ' ') {
+                out.setLength(length - 1);
+            }
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_REUSED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    private static void scan(String code, boolean stripComments, StringBuilder out) {
+        int length = code.length();
+        int depth = 0;
+        // 上一个输出的字符是否为空白（开头视为空白，从而跳过前导空白）
+        boolean pendingSpace = false;
+        boolean lastSpace = true;
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            // 注释
+            if (c == '/' && i + 1 < length && (code.charAt(i + 1) == '/' || code.charAt(i + 1) == '*')) {
+                int end = code.charAt(i + 1) == '/' ? lineEnd(code, i + 2) : blockCommentEnd(code, i + 2);
+                if (stripComments) {
+                    pendingSpace = true;
+                } else {
+                    lastSpace = appendSpace(out, pendingSpace, lastSpace);
+                    pendingSpace = false;
+                    appendCollapsed(code, i, end, out);
+                    lastSpace = false;
+                }
+                i = end;
+                continue;
+            }
+
+            // 字符串、文本块、字符字面量：原样输出（文本块中的换行同样压缩为空格）
+            if (c == '"' || c == '\'') {
+                lastSpace = appendSpace(out, pendingSpace, lastSpace);
+                pendingSpace = false;
+                int end;
+                if (c == '"' && code.startsWith("\"\"\"", i)) {
+                    end = textBlockEnd(code, i + 3);
+                    appendCollapsed(code, i, end, out);
+                } else {
+                    end = literalEnd(code, i + 1, c);
+                    out.append(code, i, end);
+                }
+                lastSpace = false;
+                i = end;
+                continue;
+            }
+
+            // 顶层的 package / import 语句：跳过到分号
+            if (depth == 0 && (c == 'p' || c == 'i') && isWordStart(code, i)
+                    && (keywordAt(code, i, "package") || keywordAt(code, i, "import"))) {
+                int end = code.indexOf(';', i);
+                i = end < 0 ? length : end + 1;
+                pendingSpace = true;
+                continue;
+            }
+
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            }
+            lastSpace = appendSpace(out, pendingSpace, lastSpace);
+            pendingSpace = false;
+            out.append(c);
+            lastSpace = false;
+            i++;
+        }
+    }
+
+    // 在两个非空白内容之间补一个空格
+    private static boolean appendSpace(StringBuilder out, boolean pendingSpace, boolean lastSpace) {
+        if (pendingSpace && !lastSpace) {
+            out.append(' ');
+            return true;
+        }
+        return lastSpace;
+    }
+
+    // 输出 [start, end)，其中连续空白合并为一个空格
+    private static void appendCollapsed(String code, int start, int end, StringBuilder out) {
+        boolean space = false;
+        for (int i = start; i < end; i++) {
+            char c = code.charAt(i);
+            if (isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space) {
+                    out.append(' ');
+                    space = false;
+                }
+                out.append(c);
+            }
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isWordStart(String code, int i) {
+        return i == 0 || !Character.isJavaIdentifierPart(code.charAt(i - 1));
+    }
+
+    // 关键字后必须是空白，避免匹配 packageName、importer 等标识符
+    private static boolean keywordAt(String code, int i, String keyword) {
+        int end = i + keyword.length();
+        return code.startsWith(keyword, i) && end < code.length() && isWhitespace(code.charAt(end));
+    }
+
+    private static int lineEnd(String code, int from) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return code.length();
+    }
+
+    private static int blockCommentEnd(String code, int from) {
+        int end = code.indexOf("*/", from);
+        return end < 0 ? code.length() : end + 2;
+    }
+
+    // 普通字符串或字符字面量的结束位置（含结束引号），遇到换行视为未闭合
+    private static int literalEnd(String code, int from, char quote) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return code.length();
+    }
+
+    private static int textBlockEnd(String code, int from) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"' && code.startsWith("\"\"\"", i)) {
+                return i + 3;
+            }
+        }
+        return code.length();
+    }
+}
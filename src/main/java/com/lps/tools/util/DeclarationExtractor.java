@@ -0,0 +1,245 @@
+package com.lps.tools.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * @author hhuang26
+ * @description 词法级预处理：把方法体、构造器体和初始化块替换为空块，只保留类型、字段和方法声明，
+ * 之后交给 JavaParser 解析时不再为方法体构建 AST。
+ * 扫描时跟踪字符串、字符、文本块及注释（注释直接丢弃），并按以下规则判断每个左花括号：
+ * 位于括号内或声明中出现过 "=" 的（注解数组、数组初始化、匿名类、lambda）照常进入；
+ * 声明中出现过 class / interface / enum / record 的是类型体，照常进入；
+ * 枚举体中第一个 ";" 之前的是枚举常量的类体，照常进入；
+ * 其余声明中出现过 "(" 的是方法体或构造器体，不含 "(" 的是初始化块，两者都替换为空块。
+ * 花括号不匹配等无法判断的情况返回 null，由调用方改用完整解析
+ */
+public class DeclarationExtractor {
+
+    private DeclarationExtractor() {
+    }
+
+    public static String stripBodies(String code) {
+        if (code == null) {
+            return null;
+        }
+        int length = code.length();
+        StringBuilder out = new StringBuilder(Math.min(length, 16 * 1024));
+        int parenDepth = 0;
+        int braceDepth = 0;
+        // 当前声明（上一个 ; { } 之后）中出现过的内容
+        boolean sawParen = false;
+        boolean sawAssign = false;
+        boolean sawTypeKeyword = false;
+        boolean sawEnum = false;
+        // 仍处于常量列表中的枚举体所在的花括号深度
+        Deque<Integer> enumConstantDepths = new ArrayDeque<>();
+        char previous = ' ';
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                i = lineEnd(code, i + 2);
+                out.append(' ');
+                continue;
+            }
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                int end = code.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return null;
+                }
+                i = end + 2;
+                out.append(' ');
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int end = c == '"' && code.startsWith("\"\"\"", i) ? textBlockEnd(code, i + 3) : literalEnd(code, i + 1, c);
+                if (end < 0) {
+                    return null;
+                }
+                out.append(code, i, end);
+                previous = c;
+                i = end;
+                continue;
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+                    end++;
+                }
+                // X.class 是类字面量，不是类型声明；括号内（注解参数等）的不计
+                if (parenDepth == 0 && previous != '.' && isTypeKeyword(code, i, end)) {
+                    sawTypeKeyword = true;
+                    sawEnum = end - i == 4;
+                }
+                out.append(code, i, end);
+                previous = 'a';
+                i = end;
+                continue;
+            }
+
+            switch (c) {
+                case '(' -> {
+                    parenDepth++;
+                    sawParen = true;
+                }
+                case ')' -> parenDepth--;
+                case '=' -> {
+                    // 只看括号外的赋值（注解参数中的 = 不算），排除 == != <= >=
+                    char next = i + 1 < length ? code.charAt(i + 1) : ' ';
+                    if (parenDepth == 0 && next != '=' && previous != '=' && previous != '!' && previous != '<' && previous != '>') {
+                        sawAssign = true;
+                    }
+                }
+                case ';' -> {
+                    if (parenDepth == 0) {
+                        sawParen = sawAssign = sawTypeKeyword = sawEnum = false;
+                        if (!enumConstantDepths.isEmpty() && enumConstantDepths.peek() == braceDepth) {
+                            enumConstantDepths.pop();
+                        }
+                    }
+                }
+                case '{' -> {
+                    boolean enumConstantBody = parenDepth == 0 && !enumConstantDepths.isEmpty() && enumConstantDepths.peek() == braceDepth;
+                    if (parenDepth > 0 || sawAssign || sawTypeKeyword || enumConstantBody) {
+                        braceDepth++;
+                        out.append(c);
+                        if (parenDepth == 0) {
+                            if (sawEnum) {
+                                enumConstantDepths.push(braceDepth);
+                            }
+                            // 进入类型体、枚举常量体、数组初始化、匿名类或 lambda，其中的声明重新判断
+                            sawParen = sawAssign = sawTypeKeyword = sawEnum = false;
+                        }
+                        previous = c;
+                        i++;
+                        continue;
+                    }
+                    // 方法体、构造器体或初始化块：跳到匹配的右花括号
+                    int end = blockEnd(code, i + 1);
+                    if (end < 0) {
+                        return null;
+                    }
+                    out.append("{}");
+                    sawParen = sawAssign = sawTypeKeyword = sawEnum = false;
+                    previous = '}';
+                    i = end;
+                    continue;
+                }
+                case '}' -> {
+                    if (!enumConstantDepths.isEmpty() && enumConstantDepths.peek() == braceDepth) {
+                        enumConstantDepths.pop();
+                    }
+                    if (--braceDepth < 0) {
+                        return null;
+                    }
+                    if (parenDepth == 0) {
+                        sawParen = sawAssign = sawTypeKeyword = sawEnum = false;
+                    }
+                }
+                default -> {
+                }
+            }
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f') {
+                // 连续空白只保留一个
+                if (previous != ' ') {
+                    out.append(' ');
+                }
+                previous = ' ';
+                i++;
+                continue;
+            }
+            out.append(c);
+            previous = c;
+            i++;
+        }
+        return braceDepth == 0 && parenDepth == 0 ? out.toString() : null;
+    }
+
+    private static boolean isTypeKeyword(String code, int start, int end) {
+        int length = end - start;
+        return (length == 5 && code.startsWith("class", start))
+                || (length == 9 && code.startsWith("interface", start))
+                || (length == 4 && code.startsWith("enum", start))
+                || (length == 6 && code.startsWith("record", start) && followedByIdentifier(code, end));
+    }
+
+    // record 是上下文关键字，也可以是方法名或变量名（如 record(...)），后面紧跟类型名时才是记录类声明
+    private static boolean followedByIdentifier(String code, int from) {
+        int i = from;
+        while (i < code.length() && Character.isWhitespace(code.charAt(i))) {
+            i++;
+        }
+        return i < code.length() && Character.isJavaIdentifierStart(code.charAt(i));
+    }
+
+    // 从块内第一个字符开始，返回匹配的右花括号之后的位置，不匹配时返回 -1
+    private static int blockEnd(String code, int from) {
+        int depth = 1;
+        int i = from;
+        int length = code.length();
+        while (i < length) {
+            char c = code.charAt(i);
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                i = lineEnd(code, i + 2);
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                int end = code.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return -1;
+                }
+                i = end + 2;
+            } else if (c == '"' || c == '\'') {
+                i = c == '"' && code.startsWith("\"\"\"", i) ? textBlockEnd(code, i + 3) : literalEnd(code, i + 1, c);
+                if (i < 0) {
+                    return -1;
+                }
+            } else {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineEnd(String code, int from) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return code.length();
+    }
+
+    // 字符串或字符字面量结束位置（含结束引号），未闭合时返回 -1
+    private static int literalEnd(String code, int from, char quote) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' || c == '\r') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int textBlockEnd(String code, int from) {
+        for (int i = from; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"' && code.startsWith("\"\"\"", i)) {
+                return i + 3;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,26 +2,159 @@ package com.lps.tools.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lps.tools.model.RevalidationStats;
+import com.lps.tools.ratelimit.RateLimitExceededException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * @author hhuang26
+ * @description GitHub REST 请求工具，使用容器中配置好的 RestTemplate（连接池、速率调度拦截器）
+ */
+@Component
 public class HttpUtil {
 
     private static final ObjectMapper mapper = new ObjectMapper();
-    private static final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
-    public static JsonNode get(String url, String token, String githubApiVersion) throws IOException {
+    /**
+     * 条件请求缓存：保存 ETag / Last-Modified 及 UTF-8 编码的原始响应体，键为 token 摘要 + URL。
+     * 命中 304 时再解析响应体；按实际字节数加权，JSON 树的大小远超原文，不放入缓存
+     */
+    private final Cache<String, CachedResponse> conditionalCache;
+    private final AtomicLong conditionalRequests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public HttpUtil(RestTemplate restTemplate,
+                    @Value("${tools.cache.revalidation.max-bytes:134217728}") long maxBytes) {
+        this.restTemplate = restTemplate;
+        this.conditionalCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> key.length() * 2 + response.body().length)
+                .build();
+    }
+
+    public JsonNode get(String url, String token, String githubApiVersion) throws IOException {
+        HttpEntity<String> entity = new HttpEntity<>(githubHeaders(token, githubApiVersion));
+
+        String response = exchange(url, entity, String.class).getBody();
+        return mapper.readTree(response);
+    }
+
+    /**
+     * 带重新验证的 GET：已缓存时携带 If-None-Match / If-Modified-Since，
+     * GitHub 返回 304 时直接使用缓存的响应体（304 不计入速率限制）。
+     * 用于分支、仓库树等可能变化但通常不变的资源；按 SHA 寻址的 blob 已由 BlobCache 缓存，不需要使用
+     */
+    public JsonNode getRevalidated(String url, String token, String githubApiVersion) throws IOException {
+        String key = tokenDigest(token) + " " + url;
+        CachedResponse cached = conditionalCache.getIfPresent(key);
+        HttpHeaders headers = githubHeaders(token, githubApiVersion);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                headers.setIfNoneMatch(cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+
+        conditionalRequests.incrementAndGet();
+        ResponseEntity<byte[]> response = exchange(url, new HttpEntity<>(headers), byte[].class);
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            notModified.incrementAndGet();
+            return mapper.readTree(cached.body());
+        }
+
+        byte[] body = response.getBody();
+        String etag = response.getHeaders().getETag();
+        String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        if (body != null && (etag != null || lastModified != null)) {
+            conditionalCache.put(key, new CachedResponse(etag, lastModified, body));
+        }
+        return mapper.readTree(body);
+    }
+
+    public RevalidationStats revalidationStats() {
+        long requests = conditionalRequests.get();
+        long hits = notModified.get();
+        return new RevalidationStats(requests, hits, requests == 0 ? 0 : (double) hits / requests, conditionalCache.estimatedSize());
+    }
+
+    /**
+     * 以流的方式读取响应体（用于 zipball 等大文件），响应体不会整体加载到内存
+     */
+    public <T> T stream(String url, String token, String githubApiVersion, StreamHandler<T> handler) {
+        HttpHeaders headers = githubHeaders(token, githubApiVersion);
+        ResponseExtractor<T> extractor = response -> {
+            try (InputStream body = response.getBody()) {
+                return handler.handle(body);
+            }
+        };
+        return restTemplate.execute(url, HttpMethod.GET, request -> request.getHeaders().putAll(headers), extractor);
+    }
+
+    // RestTemplate 把拦截器抛出的 IOException 包装为 ResourceAccessException，限流和中断还原为原异常抛出，
+    // 调用方据此让整次分析失败，而不是当作单个文件获取失败跳过
+    private <T> ResponseEntity<T> exchange(String url, HttpEntity<?> entity, Class<T> type) throws IOException {
+        try {
+            return restTemplate.exchange(url, HttpMethod.GET, entity, type);
+        } catch (ResourceAccessException e) {
+            if (e.getCause() instanceof RateLimitExceededException || e.getCause() instanceof InterruptedIOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static HttpHeaders githubHeaders(String token, String githubApiVersion) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + token);
         headers.set("Accept", "application/vnd.github+json");
         headers.set("X-GitHub-Api-Version", githubApiVersion);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        return headers;
+    }
 
-        String response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class).getBody();
-        return mapper.readTree(response);
+    /**
+     * token 摘要，用于缓存键、速率统计等不应直接保存 token 的场景
+     */
+    public static String tokenDigest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(token).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存的响应，body 为原始响应体，只读共享
+     */
+    private record CachedResponse(String etag, String lastModified, byte[] body) {
+    }
+
+    @FunctionalInterface
+    public interface StreamHandler<T> {
+        T handle(InputStream body) throws IOException;
     }
-}
\ No newline at end of file
+}
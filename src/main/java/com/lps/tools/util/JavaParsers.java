@@ -0,0 +1,41 @@
+package com.lps.tools.util;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.lps.tools.metrics.AnalysisStage;
+import com.lps.tools.metrics.StageTimer;
+
+/**
+ * @author hhuang26
+ * @description 每个线程复用一个 JavaParser 实例，代替共享全局配置的 StaticJavaParser。
+ * 只需要类型信息，因此不把注释关联到节点、不保存词法单元列表
+ */
+public class JavaParsers {
+
+    private static final ThreadLocal<JavaParser> PARSER = ThreadLocal.withInitial(() -> new JavaParser(configuration()));
+
+    private JavaParsers() {
+    }
+
+    /**
+     * 解析源码，语法错误时抛出 ParseProblemException
+     */
+    public static CompilationUnit parse(String code) {
+        ParseResult<CompilationUnit> result = StageTimer.time(AnalysisStage.PARSE, () -> PARSER.get().parse(code));
+        if (!result.isSuccessful() || result.getResult().isEmpty()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        return result.getResult().get();
+    }
+
+    public static ParserConfiguration configuration() {
+        return new ParserConfiguration()
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17)
+                .setAttributeComments(false)
+                .setStoreTokens(false)
+                .setLexicalPreservationEnabled(false);
+    }
+}
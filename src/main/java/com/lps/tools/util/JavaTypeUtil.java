@@ -0,0 +1,94 @@
+package com.lps.tools.util;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.WildcardType;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author hhuang26
+ * @description 从 JavaParser 类型中提取业务类型名（展开泛型参数、数组、通配符，跳过 JDK 及框架容器类型）
+ */
+public class JavaTypeUtil {
+
+    /**
+     * 原始类型、包装类型及常见 JDK 类型（小写）
+     */
+    private static final Set<String> PRIMITIVE_TYPES = Set.of(
+            "string", "int", "long", "double", "boolean", "list", "map", "void", "object", "integer",
+            "short", "byte", "char", "character", "float", "number", "bigdecimal", "biginteger",
+            "date", "localdate", "localdatetime", "localtime", "instant", "uuid", "set", "collection"
+    );
+
+    /**
+     * 只用于包装业务类型的容器、框架类型，本身不需要获取源码
+     */
+    private static final Set<String> CONTAINER_TYPES = Set.of(
+            "ResponseEntity", "Optional", "Iterable", "HashMap", "LinkedHashMap", "ArrayList", "LinkedList",
+            "HashSet", "Page", "Pageable", "Mono", "Flux", "CompletableFuture", "Future", "Callable",
+            "DeferredResult", "HttpServletRequest", "HttpServletResponse", "MultipartFile", "HttpHeaders",
+            "HttpEntity", "Model", "ModelMap", "BindingResult", "Principal", "JsonNode", "SseEmitter"
+    );
+
+    private JavaTypeUtil() {
+    }
+
+    public static boolean isPrimitiveType(String type) {
+        return PRIMITIVE_TYPES.contains(type.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 收集类型中引用的业务类型简单类名，如 ResponseEntity&lt;List&lt;UserDTO&gt;&gt; -> UserDTO
+     */
+    public static void collectTypeNames(Type type, Set<String> out) {
+        if (type instanceof ArrayType arrayType) {
+            collectTypeNames(arrayType.getComponentType(), out);
+        } else if (type instanceof WildcardType wildcardType) {
+            wildcardType.getExtendedType().ifPresent(bound -> collectTypeNames(bound, out));
+            wildcardType.getSuperType().ifPresent(bound -> collectTypeNames(bound, out));
+        } else if (type instanceof ClassOrInterfaceType classType) {
+            String name = classType.getNameAsString();
+            if (!isPrimitiveType(name) && !CONTAINER_TYPES.contains(name)) {
+                out.add(name);
+            }
+            classType.getTypeArguments().ifPresent(args -> args.forEach(arg -> collectTypeNames(arg, out)));
+        }
+    }
+
+    /**
+     * 构建 import 映射：简单类名 -> 全限定类名（忽略静态导入和通配符导入）
+     */
+    public static Map<String, String> importMap(CompilationUnit cu) {
+        Map<String, String> imports = new HashMap<>();
+        for (ImportDeclaration importDecl : cu.getImports()) {
+            if (importDecl.isStatic() || importDecl.isAsterisk()) {
+                continue;
+            }
+            String qualifiedName = importDecl.getNameAsString();
+            imports.put(qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1), qualifiedName);
+        }
+        return imports;
+    }
+
+    public static String packageName(CompilationUnit cu) {
+        return cu.getPackageDeclaration().map(pkg -> pkg.getNameAsString()).orElse("");
+    }
+
+    /**
+     * 由源码路径推断全限定类名，如 a/src/main/java/com/x/UserDTO.java -> com.x.UserDTO；无法推断时返回 null
+     */
+    public static String qualifiedNameFromPath(String path) {
+        int javaRoot = path.lastIndexOf("/java/");
+        if (javaRoot < 0 || !path.endsWith(".java")) {
+            return null;
+        }
+        return path.substring(javaRoot + "/java/".length(), path.length() - ".java".length()).replace('/', '.');
+    }
+}
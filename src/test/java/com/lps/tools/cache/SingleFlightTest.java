@@ -0,0 +1,166 @@
+package com.lps.tools.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author hhuang26
+ * @description 合并并发调用：等待中的调用方共享 leader 的结果或异常，计算结束后同一键重新计算
+ */
+class SingleFlightTest {
+
+    private static final int WAITERS = 8;
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<String>> results = callConcurrently("k", () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "value";
+        }, release);
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(flight.executions()).isEqualTo(1);
+        assertThat(flight.shared()).isEqualTo(WAITERS);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void exceptionIsPropagatedToAllWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("boom");
+        List<Future<String>> results = callConcurrently("k", () -> {
+            release.await();
+            throw failure;
+        }, release);
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(flight.executions()).isEqualTo(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void runtimeExceptionIsRethrownAsIs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("boom");
+        List<Future<String>> results = callConcurrently("k", () -> {
+            release.await();
+            throw failure;
+        }, release);
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).cause().isSameAs(failure);
+        }
+    }
+
+    @Test
+    void checkedExceptionIsWrappedInIOException() {
+        Exception failure = new Exception("boom");
+
+        assertThatThrownBy(() -> flight.execute("k", () -> {
+            throw failure;
+        })).isInstanceOf(IOException.class).hasCause(failure);
+    }
+
+    @Test
+    void completedKeyIsComputedAgain() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(flight.execute("k", () -> "v" + calls.incrementAndGet())).isEqualTo("v1");
+        assertThat(flight.execute("k", () -> "v" + calls.incrementAndGet())).isEqualTo("v2");
+        assertThatThrownBy(() -> flight.execute("k", () -> {
+            throw new IOException("boom");
+        })).isInstanceOf(IOException.class);
+        // 失败的计算同样不保留
+        assertThat(flight.execute("k", () -> "v" + calls.incrementAndGet())).isEqualTo("v3");
+        assertThat(flight.executions()).isEqualTo(4);
+        assertThat(flight.shared()).isZero();
+    }
+
+    @Test
+    void differentKeysAreNotMerged() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Future<String> a = executor.submit(() -> flight.execute("a", () -> {
+            started.countDown();
+            release.await();
+            return "a";
+        }));
+        Future<String> b = executor.submit(() -> flight.execute("b", () -> {
+            started.countDown();
+            release.await();
+            return "b";
+        }));
+
+        // 两个键的计算同时进行
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(flight.inFlight()).isEqualTo(2);
+        release.countDown();
+        assertThat(a.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(b.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        assertThat(flight.executions()).isEqualTo(2);
+    }
+
+    // leader 进入计算后再启动其余调用方，全部开始等待后放行 leader
+    private List<Future<String>> callConcurrently(String key, Callable<String> loader, CountDownLatch release) throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flight.execute(key, () -> {
+            entered.countDown();
+            return loader.call();
+        })));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(() -> flight.execute(key, () -> {
+                throw new AssertionError("等待中的调用方不应执行计算");
+            })));
+        }
+        awaitCondition(() -> flight.shared() == WAITERS);
+        release.countDown();
+        return results;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException();
+            }
+            Thread.sleep(1);
+        }
+    }
+}
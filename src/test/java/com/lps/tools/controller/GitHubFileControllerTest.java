@@ -0,0 +1,70 @@
+package com.lps.tools.controller;
+
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.service.RepoFileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author hhuang26
+ * @description 文件列表分页：offset 为负数或 limit 不大于 0 时返回 400，不会请求 GitHub
+ */
+class GitHubFileControllerTest {
+
+    private final GitHubFileController controller = new GitHubFileController();
+
+    @BeforeEach
+    void setUp() {
+        RepoFileService repoFileService = new RepoFileService() {
+            @Override
+            public Flux<String> listDownloadUrls(GitHubRequestInfo info) {
+                return Flux.range(0, 5).map(i -> "https://raw.example.com/f" + i);
+            }
+        };
+        ReflectionTestUtils.setField(controller, "repoFileService", repoFileService);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "-1, 10",
+            "0, 0",
+            "0, -1",
+            "-9223372036854775808, 1"
+    })
+    void invalidPagingIsBadRequest(long offset, long limit) {
+        assertThatThrownBy(() -> files(offset, limit))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 9223372036854775807, 5",
+            "1, 2, 2",
+            "4, 10, 1",
+            "5, 1, 0",
+            "100, 1, 0"
+    })
+    void validPaging(long offset, long limit, int expected) {
+        List<String> files = files(offset, limit);
+
+        assertThat(files).hasSize(expected);
+        if (expected > 0) {
+            assertThat(files.get(0)).isEqualTo("https://raw.example.com/f" + offset);
+        }
+    }
+
+    private List<String> files(long offset, long limit) {
+        return controller.getGitHubFiles("octo", "demo", "test-token", "2022-11-28", "main", offset, limit).block();
+    }
+}
@@ -0,0 +1,117 @@
+package com.lps.tools.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * @author hhuang26
+ * @description 类名索引：先精确匹配，否则忽略大小写做子串匹配，多个候选时取最短、再按字典序最小的类名；
+ * 结果与逐个类名比较的朴素实现一致
+ */
+class ClassNameIndexTest {
+
+    private static final List<String> CLASSES = List.of(
+            "User", "UserDto", "UserDTO", "UserVo", "AdminUser", "OrderDto", "OrderItemDto",
+            "Page", "PageResult", "BetaInfo", "GammInfo", "Ab", "Xyzzy", "Aaaa");
+
+    private final ClassNameIndex index = new ClassNameIndex(paths(CLASSES));
+
+    @ParameterizedTest(name = "{0}: {1} -> {2}")
+    @MethodSource("cases")
+    void find(String name, String query, String expected) {
+        assertThat(index.find(query)).isEqualTo(path(expected));
+        // 第二次查询走缓存，结果不变
+        assertThat(index.find(query)).isEqualTo(path(expected));
+    }
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                arguments("精确匹配", "UserDto", "UserDto"),
+                arguments("精确匹配优先于忽略大小写的匹配", "UserDTO", "UserDTO"),
+                arguments("忽略大小写相等时取字典序较小的", "userdto", "UserDTO"),
+                arguments("后缀匹配取最短", "ItemDto", "OrderItemDto"),
+                arguments("后缀匹配长度相同时取字典序较小的", "Dto", "UserDTO"),
+                arguments("后缀匹配长度相同时取字典序较小的", "Info", "BetaInfo"),
+                arguments("中间的子串", "rIte", "OrderItemDto"),
+                arguments("最短的候选", "ser", "User"),
+                arguments("前缀", "PageRes", "PageResult"),
+                arguments("重复三元组", "aaa", "Aaaa"),
+                arguments("少于三个字符时顺序扫描", "b", "Ab"),
+                arguments("少于三个字符时顺序扫描", "zz", "Xyzzy"),
+                arguments("未命中", "Missing", null),
+                arguments("未命中：三元组都存在但类名不包含查询", "aaaaa", null),
+                arguments("未命中：部分三元组不存在", "Dtox", null),
+                arguments("未命中：三元组不存在", "zzz", null),
+                arguments("未命中：少于三个字符", "q", null),
+                arguments("null", null, null)
+        );
+    }
+
+    @Test
+    void matchesNaiveLookup() {
+        Random random = new Random(7);
+        List<String> names = Stream.generate(() -> randomName(random, 1 + random.nextInt(8)))
+                .limit(300)
+                .distinct()
+                .toList();
+        ClassNameIndex randomIndex = new ClassNameIndex(paths(names));
+
+        for (int i = 0; i < 2000; i++) {
+            String query = randomName(random, 1 + random.nextInt(5));
+            assertThat(randomIndex.find(query)).as(query).isEqualTo(path(naiveFind(names, query)));
+        }
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        ClassNameIndex empty = new ClassNameIndex(Map.of());
+
+        assertThat(empty.size()).isZero();
+        assertThat(empty.find("User")).isNull();
+        assertThat(empty.find("U")).isNull();
+    }
+
+    // 逐个类名比较：精确匹配，否则取包含查询（忽略大小写）的类名中最短、字典序最小的
+    private static String naiveFind(List<String> names, String query) {
+        if (names.contains(query)) {
+            return query;
+        }
+        String lower = query.toLowerCase(Locale.ROOT);
+        return names.stream()
+                .filter(name -> name.toLowerCase(Locale.ROOT).contains(lower))
+                .min(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()))
+                .orElse(null);
+    }
+
+    // 字母表很小，保证大量的子串命中及长度相同的候选
+    private static String randomName(Random random, int length) {
+        String alphabet = "abAB";
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return name.toString();
+    }
+
+    private static Map<String, String> paths(List<String> names) {
+        return names.stream().collect(Collectors.toMap(name -> name, ClassNameIndexTest::path, (a, b) -> a, HashMap::new));
+    }
+
+    private static String path(String className) {
+        return className == null ? null : "src/main/java/com/x/dto/" + className + ".java";
+    }
+}
@@ -0,0 +1,202 @@
+package com.lps.tools.pipeline;
+
+import com.lps.tools.model.StageStats;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import com.lps.tools.ratelimit.RequestPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * @author hhuang26
+ * @description 分析流水线：结果保持输入顺序，单个条目失败或返回 null 时跳过，in-flight 名额在任一阶段失败后都会释放；
+ * 限流与取消结束整批处理
+ */
+class ControllerAnalysisPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ControllerAnalysisPipeline pipeline = new ControllerAnalysisPipeline(4, 2, 4, 2, 4);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void failedAndNullItemsAreSkippedInOrder() throws Exception {
+        List<Integer> inputs = IntStream.range(0, 40).boxed().toList();
+
+        List<String> results = pipeline.process(inputs,
+                i -> {
+                    jitter();
+                    if (i % 5 == 1) {
+                        throw new IOException("fetch " + i);
+                    }
+                    return i;
+                },
+                i -> i % 7 == 2 ? null : i,
+                i -> {
+                    jitter();
+                    if (i % 11 == 3) {
+                        throw new IllegalStateException("resolve " + i);
+                    }
+                    return i;
+                },
+                i -> "r" + i);
+
+        List<String> expected = inputs.stream()
+                .filter(i -> i % 5 != 1 && i % 7 != 2 && i % 11 != 3)
+                .map(i -> "r" + i)
+                .toList();
+        assertThat(results).isEqualTo(expected);
+        assertThat(pipeline.stats().getInFlight()).isZero();
+        Map<String, Long> failed = pipeline.stats().getStages().stream()
+                .collect(Collectors.toMap(StageStats::getStage, StageStats::getFailed));
+        assertThat(failed).containsEntry("FETCH", 8L).containsEntry("PARSE", 0L).containsEntry("RENDER", 0L);
+        assertThat(failed.get("RESOLVE")).isPositive();
+    }
+
+    @Test
+    void permitsAreReleasedWhenEveryStageFails() {
+        // 名额泄漏时后续条目在 submit 中永久阻塞
+        List<Integer> inputs = IntStream.range(0, 100).boxed().toList();
+
+        List<Integer> results = assertTimeoutPreemptively(TIMEOUT, () -> pipeline.process(inputs,
+                i -> fail(i, 0),
+                i -> fail(i, 1),
+                i -> fail(i, 2),
+                i -> fail(i, 3)));
+
+        assertThat(results).containsExactlyElementsOf(IntStream.range(0, 100).filter(i -> i % 5 == 4).boxed().toList());
+        assertThat(pipeline.stats().getInFlight()).isZero();
+    }
+
+    @Test
+    void inFlightItemsNeverExceedLimit() throws Exception {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        pipeline.process(IntStream.range(0, 60).boxed().toList(),
+                i -> {
+                    peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+                    jitter();
+                    return i;
+                },
+                i -> i,
+                i -> {
+                    jitter();
+                    return i;
+                },
+                i -> {
+                    current.decrementAndGet();
+                    return i;
+                });
+
+        assertThat(peak.get()).isBetween(1, 4);
+    }
+
+    @Test
+    void stagesRunWithBulkPriority() throws Exception {
+        List<RequestPriority> priorities = pipeline.process(List.of(1),
+                i -> RequestPriority.current(), p -> p, p -> p, p -> p);
+
+        assertThat(priorities).containsExactly(RequestPriority.BULK);
+        assertThat(RequestPriority.current()).isEqualTo(RequestPriority.INTERACTIVE);
+    }
+
+    @Test
+    void rateLimitEndsTheBatch() {
+        RateLimitExceededException rateLimit = new RateLimitExceededException(RequestPriority.BULK, 60_000, System.currentTimeMillis() + 60_000);
+
+        assertThatThrownBy(() -> pipeline.process(IntStream.range(0, 20).boxed().toList(),
+                i -> {
+                    if (i == 5) {
+                        throw rateLimit;
+                    }
+                    return i;
+                },
+                i -> i, i -> i, i -> i))
+                .isSameAs(rateLimit);
+        awaitNoneInFlight();
+    }
+
+    @Test
+    void cancellationEndsTheBatch() {
+        assertThatThrownBy(() -> pipeline.process(IntStream.range(0, 20).boxed().toList(),
+                i -> i,
+                i -> {
+                    if (i == 5) {
+                        throw new CancellationException("cancelled");
+                    }
+                    return i;
+                },
+                i -> i, i -> i))
+                .isInstanceOf(CancellationException.class)
+                .hasMessage("cancelled");
+        awaitNoneInFlight();
+    }
+
+    @Test
+    void permitIsReleasedWhenSubmitIsRejected() {
+        pipeline.shutdown();
+
+        assertThatThrownBy(() -> pipeline.submit(1, i -> i, i -> i, i -> i, i -> i))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(pipeline.stats().getInFlight()).isZero();
+    }
+
+    @Test
+    void laterStageRejectionFailsTheItemAndReleasesPermit() throws Exception {
+        pipeline.shutdown();
+        pipeline = new ControllerAnalysisPipeline(1, 1, 1, 1, 1);
+        CompletableFuture<Integer> future = pipeline.submit(1,
+                i -> {
+                    // fetch 执行期间关闭线程池，后续阶段提交被拒绝
+                    pipeline.shutdown();
+                    return i;
+                },
+                i -> i, i -> i, i -> i);
+
+        assertThatThrownBy(() -> future.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(RejectedExecutionException.class);
+        awaitNoneInFlight();
+    }
+
+    // 按阶段依次失败：i % 5 == stage 的条目在该阶段抛出异常，i % 5 == 4 的条目成功
+    private static int fail(int i, int stage) throws IOException {
+        if (i % 5 == stage) {
+            throw new IOException("stage " + stage);
+        }
+        return i;
+    }
+
+    private static void jitter() throws InterruptedException {
+        TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(500));
+    }
+
+    // 整批结束时其余条目可能仍在执行，名额在它们结束后释放
+    private void awaitNoneInFlight() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (pipeline.stats().getInFlight() > 0) {
+                Thread.sleep(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.lps.tools.service;
+
+import com.lps.tools.cache.BlobCache;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.IngestionMode;
+import com.lps.tools.store.DiskBlobStore;
+import com.lps.tools.support.StubHttpServer;
+import com.lps.tools.util.HttpUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author hhuang26
+ * @description zipball 预热：本地服务返回 zip，检查写入 BlobCache 的内容及 ARCHIVE / CONTENTS / AUTO 的选择
+ */
+class ArchiveIngestionServiceTest {
+
+    private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+    private static final String ZIPBALL_PATH = "/repos/octo/demo/zipball/" + COMMIT;
+
+    private StubHttpServer server;
+    private BlobCache blobCache;
+    private ArchiveIngestionService service;
+    private final GitHubRequestInfo info = new GitHubRequestInfo("octo", "demo", "main", "test-token", "2022-11-28");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.route(ZIPBALL_PATH, 200, "application/zip", zip(Map.of(
+                "octo-demo-0123456/", "",
+                "octo-demo-0123456/src/main/java/A.java", "class A {}",
+                "octo-demo-0123456/src/main/java/B.java", "class B {}",
+                "octo-demo-0123456/src/main/java/C.java", "class C {}",
+                "octo-demo-0123456/README.md", "# demo")));
+        blobCache = new BlobCache(1 << 20, Duration.ofHours(1), new StaticListableBeanFactory().getBeanProvider(DiskBlobStore.class));
+        service = new ArchiveIngestionService();
+        ReflectionTestUtils.setField(service, "blobCache", blobCache);
+        ReflectionTestUtils.setField(service, "httpUtil", new HttpUtil(new RestTemplate(), 1 << 20));
+        ReflectionTestUtils.setField(service, "apiBaseUrl", server.baseUrl());
+        configure(IngestionMode.AUTO, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void archiveModeLoadsOnlyWantedFiles() {
+        configure(IngestionMode.ARCHIVE, 50);
+        Map<String, String> wanted = new LinkedHashMap<>();
+        wanted.put("src/main/java/A.java", "sha-a");
+        wanted.put("src/main/java/C.java", "sha-c");
+        // 不在压缩包中的文件之后逐个获取
+        wanted.put("src/main/java/Missing.java", "sha-missing");
+
+        int loaded = service.preload(info, COMMIT, wanted);
+
+        assertThat(loaded).isEqualTo(2);
+        assertThat(blobCache.get("sha-a")).isEqualTo("class A {}");
+        assertThat(blobCache.get("sha-c")).isEqualTo("class C {}");
+        assertThat(blobCache.get("sha-missing")).isNull();
+        assertThat(blobCache.size()).isEqualTo(2);
+        assertThat(server.requests()).singleElement().satisfies(request -> {
+            assertThat(request.path()).isEqualTo(ZIPBALL_PATH);
+            assertThat(request.headers().getFirst("Authorization")).isEqualTo("Bearer test-token");
+        });
+    }
+
+    @Test
+    void contentsModeNeverDownloadsArchive() {
+        configure(IngestionMode.CONTENTS, 0);
+
+        assertThat(service.preload(info, COMMIT, wanted(3))).isZero();
+        assertThat(server.requests()).isEmpty();
+        assertThat(blobCache.size()).isZero();
+    }
+
+    @Test
+    void autoModeBelowThresholdSkipsArchive() {
+        assertThat(service.preload(info, COMMIT, wanted(2))).isZero();
+        assertThat(server.requests()).isEmpty();
+    }
+
+    @Test
+    void autoModeAtThresholdDownloadsArchive() {
+        assertThat(service.preload(info, COMMIT, wanted(3))).isEqualTo(3);
+        assertThat(server.requests()).hasSize(1);
+        assertThat(blobCache.get("sha-1")).isEqualTo("class A {}");
+        assertThat(blobCache.get("sha-2")).isEqualTo("class B {}");
+        assertThat(blobCache.get("sha-3")).isEqualTo("class C {}");
+    }
+
+    @Test
+    void autoModeCountsOnlyUncachedFiles() {
+        blobCache.put("sha-1", "class A {}");
+
+        // 3 个文件中只有 2 个未缓存，低于阈值
+        assertThat(service.preload(info, COMMIT, wanted(3))).isZero();
+        assertThat(server.requests()).isEmpty();
+    }
+
+    @Test
+    void failedDownloadFallsBackWithoutError() {
+        server.route(ZIPBALL_PATH, 502, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(service.preload(info, COMMIT, wanted(3))).isZero();
+        assertThat(blobCache.size()).isZero();
+    }
+
+    private void configure(IngestionMode mode, int threshold) {
+        ReflectionTestUtils.setField(service, "ingestionMode", mode);
+        ReflectionTestUtils.setField(service, "archiveThreshold", threshold);
+    }
+
+    // A、B、C 三个文件中的前 count 个，SHA 为 sha-1、sha-2 ...
+    private static Map<String, String> wanted(int count) {
+        Map<String, String> wanted = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            wanted.put("src/main/java/" + (char) ('A' + i) + ".java", "sha-" + (i + 1));
+        }
+        return wanted;
+    }
+
+    private static byte[] zip(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : new TreeMap<>(entries).entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
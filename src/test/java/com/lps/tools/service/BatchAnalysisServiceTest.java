@@ -0,0 +1,172 @@
+package com.lps.tools.service;
+
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.RelevantFiles;
+import com.lps.tools.model.RepoAnalysisResult;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import com.lps.tools.ratelimit.RequestPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author hhuang26
+ * @description 多仓库批量分析：准备好的仓库轮转提交控制器，大仓库不会阻塞小仓库；
+ * 每个仓库按控制器顺序汇总结果，限流时该仓库输出错误
+ */
+class BatchAnalysisServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final StubGithubService githubService = new StubGithubService();
+    private final BatchAnalysisService service = new BatchAnalysisService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "githubService", githubService);
+        ReflectionTestUtils.setField(service, "prepareParallelism", 4);
+        ReflectionTestUtils.setField(service, "maxRepositories", 100);
+    }
+
+    @Test
+    void controllersAreSubmittedRoundRobin() {
+        githubService.repository("large", 60);
+        githubService.repository("small", 3);
+        githubService.repository("tiny", 2);
+        githubService.prepareTogether(3);
+
+        Map<String, RepoAnalysisResult> results = analyze("large", "small", "tiny");
+
+        List<String> order = githubService.submittedRepos();
+        assertThat(order).hasSize(65);
+        // 同一仓库相邻两次提交之间，其他仓库最多各提交一次
+        for (String repo : List.of("large", "small", "tiny")) {
+            List<Integer> positions = IntStream.range(0, order.size()).filter(i -> order.get(i).equals(repo)).boxed().toList();
+            for (int i = 1; i < positions.size(); i++) {
+                List<String> between = order.subList(positions.get(i - 1) + 1, positions.get(i));
+                assertThat(between).doesNotHaveDuplicates();
+            }
+        }
+        // 小仓库在大仓库提交完之前就已全部提交
+        assertThat(order.lastIndexOf("tiny")).isLessThan(order.lastIndexOf("large"));
+        assertThat(order.lastIndexOf("small")).isLessThan(order.lastIndexOf("large"));
+
+        assertThat(results.get("large").getResults()).hasSize(60).startsWith("large/C0", "large/C1").endsWith("large/C59");
+        assertThat(results.get("small").getResults()).containsExactly("small/C0", "small/C1", "small/C2");
+        assertThat(results.get("tiny").getResults()).containsExactly("tiny/C0", "tiny/C1");
+        assertThat(results.values()).allSatisfy(result -> {
+            assertThat(result.getError()).isNull();
+            assertThat(result.getCommitSha()).isEqualTo("sha-" + result.getRepo());
+        });
+    }
+
+    @Test
+    void failedControllerIsSkippedAndRateLimitFailsRepository() {
+        githubService.repository("partial", 4);
+        githubService.repository("limited", 4);
+        githubService.fail("partial/C1", new IOException("boom"));
+        githubService.fail("limited/C2", new RateLimitExceededException(RequestPriority.BULK, 60_000, System.currentTimeMillis() + 60_000));
+
+        Map<String, RepoAnalysisResult> results = analyze("partial", "limited", "missing");
+
+        assertThat(results.get("partial").getResults()).containsExactly("partial/C0", "partial/C2", "partial/C3");
+        assertThat(results.get("partial").getError()).isNull();
+        assertThat(results.get("limited").getResults()).isEmpty();
+        assertThat(results.get("limited").getError()).contains("速率配额不足");
+        // 准备失败的仓库同样输出一条结果
+        assertThat(results.get("missing").getResults()).isEmpty();
+        assertThat(results.get("missing").getError()).isEqualTo("no such repository: missing");
+    }
+
+    private Map<String, RepoAnalysisResult> analyze(String... repos) {
+        List<GitHubRequestInfo> requests = new ArrayList<>();
+        for (String repo : repos) {
+            requests.add(new GitHubRequestInfo("octo", repo, "main", "test-token", "2022-11-28"));
+        }
+        List<RepoAnalysisResult> results = service.analyzeRepositories(requests).collectList().block(TIMEOUT);
+        assertThat(results).hasSize(repos.length);
+        return results.stream().collect(Collectors.toMap(RepoAnalysisResult::getRepo, Function.identity()));
+    }
+
+    /**
+     * 不访问 GitHub：仓库的控制器由测试指定，提交控制器时记录所属仓库并直接返回结果
+     */
+    private static class StubGithubService extends GithubService {
+        private final Map<String, Integer> controllerCounts = new ConcurrentHashMap<>();
+        private final Map<String, Exception> failures = new ConcurrentHashMap<>();
+        private final List<String> submitted = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch prepareLatch;
+
+        void repository(String repo, int controllers) {
+            controllerCounts.put(repo, controllers);
+        }
+
+        void fail(String controller, Exception e) {
+            failures.put(controller, e);
+        }
+
+        // 各仓库的准备同时完成，轮转开始后其余仓库立即加入
+        void prepareTogether(int repos) {
+            prepareLatch = new CountDownLatch(repos);
+        }
+
+        List<String> submittedRepos() {
+            synchronized (submitted) {
+                return submitted.stream().map(controller -> controller.substring(0, controller.indexOf('/'))).toList();
+            }
+        }
+
+        @Override
+        public String getDefaultBranchSha(GitHubRequestInfo gitHubRequestInfo, HttpHeaders headers) throws IOException {
+            if (!controllerCounts.containsKey(gitHubRequestInfo.getRepo())) {
+                throw new IOException("no such repository: " + gitHubRequestInfo.getRepo());
+            }
+            return "sha-" + gitHubRequestInfo.getRepo();
+        }
+
+        @Override
+        RelevantFiles prepareRepository(GitHubRequestInfo gitHubRequestInfo, String sha) throws IOException {
+            CountDownLatch latch = prepareLatch;
+            if (latch != null) {
+                latch.countDown();
+                try {
+                    latch.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            String repo = gitHubRequestInfo.getRepo();
+            RelevantFiles relevantFiles = new RelevantFiles();
+            relevantFiles.setControllers(IntStream.range(0, controllerCounts.get(repo)).mapToObj(i -> repo + "/C" + i).toList());
+            return relevantFiles;
+        }
+
+        @Override
+        CompletableFuture<String> submitController(String path, RelevantFiles relevantFiles, GitHubRequestInfo gitHubRequestInfo)
+                throws InterruptedException {
+            // 实际提交时会等待流水线的 in-flight 名额，这里用短暂的等待代替
+            TimeUnit.MILLISECONDS.sleep(1);
+            submitted.add(path);
+            Exception failure = failures.get(path);
+            return failure != null ? CompletableFuture.failedFuture(failure) : CompletableFuture.completedFuture(path);
+        }
+    }
+}
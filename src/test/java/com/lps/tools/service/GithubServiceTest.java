@@ -0,0 +1,230 @@
+package com.lps.tools.service;
+
+import com.lps.tools.cache.BlobCache;
+import com.lps.tools.cache.ControllerSignatureCache;
+import com.lps.tools.cache.TypeSummaryCache;
+import com.lps.tools.job.AnalysisProgress;
+import com.lps.tools.model.ControllerEntry;
+import com.lps.tools.model.DeduplicatedAnalysisResult;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.model.IngestionMode;
+import com.lps.tools.pipeline.ControllerAnalysisPipeline;
+import com.lps.tools.ratelimit.GitHubRateLimiter;
+import com.lps.tools.ratelimit.RateLimitExceededException;
+import com.lps.tools.ratelimit.RateLimitInterceptor;
+import com.lps.tools.store.DiskBlobStore;
+import com.lps.tools.store.InMemoryAnalysisResultStore;
+import com.lps.tools.support.StubHttpServer;
+import com.lps.tools.util.HttpUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author hhuang26
+ * @description 控制器分析：本地服务模拟 GitHub 的分支、仓库树及 blob 接口，检查分析结果及增量复用
+ */
+class GithubServiceTest {
+
+    private static final String CONTROLLER = "src/main/java/com/x/controller/UserController.java";
+    private static final String USER_DTO = "src/main/java/com/x/dto/UserDto.java";
+
+    private static final String CONTROLLER_SOURCE = """
+            package com.x.controller;
+
+            import com.x.dto.UserDto;
+
+            @RestController
+            public class UserController {
+                @GetMapping("/users/{id}")
+                public UserDto get(@PathVariable Long id) { return null; }
+            }
+            """;
+    private static final String USER_DTO_SOURCE = """
+            package com.x.dto;
+
+            public class UserDto { private String name; }
+            """;
+
+    private StubHttpServer server;
+    private GithubService service;
+    private ControllerAnalysisPipeline pipeline;
+    private final GitHubRequestInfo info = new GitHubRequestInfo("octo", "demo", "main", "test-token", "2022-11-28");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubHttpServer();
+        pipeline = new ControllerAnalysisPipeline(2, 1, 2, 1, 16);
+        HttpUtil httpUtil = new HttpUtil(new RestTemplate(), 1 << 20);
+
+        ArchiveIngestionService archiveIngestionService = new ArchiveIngestionService();
+        ReflectionTestUtils.setField(archiveIngestionService, "ingestionMode", IngestionMode.CONTENTS);
+        ReflectionTestUtils.setField(archiveIngestionService, "httpUtil", httpUtil);
+
+        service = new GithubService();
+        ReflectionTestUtils.setField(service, "blobCache",
+                new BlobCache(1 << 20, Duration.ofHours(1), new StaticListableBeanFactory().getBeanProvider(DiskBlobStore.class)));
+        ReflectionTestUtils.setField(service, "archiveIngestionService", archiveIngestionService);
+        ReflectionTestUtils.setField(service, "pipeline", pipeline);
+        ReflectionTestUtils.setField(service, "typeSummaryCache", new TypeSummaryCache(1000));
+        ReflectionTestUtils.setField(service, "controllerSignatureCache", new ControllerSignatureCache(1000));
+        ReflectionTestUtils.setField(service, "resultStore", new InMemoryAnalysisResultStore(1 << 20));
+        ReflectionTestUtils.setField(service, "httpUtil", httpUtil);
+        ReflectionTestUtils.setField(service, "apiBaseUrl", server.baseUrl());
+        ReflectionTestUtils.setField(service, "incremental", true);
+        ReflectionTestUtils.setField(service, "dtoDepth", 3);
+        ReflectionTestUtils.setField(service, "signatureOnly", true);
+        ReflectionTestUtils.setField(service, "stripComments", false);
+        ReflectionTestUtils.setField(service, "streamWindow", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        pipeline.shutdown();
+    }
+
+    @Test
+    void controllerIncludesReferencedDataClass() throws Exception {
+        repository("c1", Map.of(CONTROLLER, CONTROLLER_SOURCE, USER_DTO, USER_DTO_SOURCE));
+
+        List<String> results = service.analyzeControllers(info, new HttpHeaders());
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result).contains("public class UserController");
+            assertThat(result).contains("public class UserDto");
+        });
+    }
+
+    @Test
+    void failedDataClassFetchIsNotReused() throws Exception {
+        repository("c1", Map.of(CONTROLLER, CONTROLLER_SOURCE, USER_DTO, USER_DTO_SOURCE));
+        // 数据类暂时获取失败（如 5xx）：本次结果不完整
+        server.route(blobPath(USER_DTO), 502, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        List<String> degraded = service.analyzeControllers(info, new HttpHeaders());
+        assertThat(degraded).singleElement().asString().doesNotContain("UserDto {");
+
+        // 同一提交再次分析：不完整的结果不能被复用
+        blob(USER_DTO, USER_DTO_SOURCE);
+        List<String> recovered = service.analyzeControllers(info, new HttpHeaders());
+        assertThat(recovered).singleElement().asString().contains("public class UserDto");
+
+        // 完整的结果之后可以直接复用，不再请求 blob
+        int blobRequests = blobRequests();
+        assertThat(service.analyzeControllers(info, new HttpHeaders())).isEqualTo(recovered);
+        assertThat(blobRequests()).isEqualTo(blobRequests);
+    }
+
+    @Test
+    void analysisFailsWhenQuotaDropsToReserve() {
+        repository("c1", Map.of(CONTROLLER, CONTROLLER_SOURCE, USER_DTO, USER_DTO_SOURCE));
+        // 剩余配额 50 不超过预留的 100，一小时后重置：分支、仓库树等交互请求继续，流水线中的批量请求需等待超过 max-wait
+        server.header("X-RateLimit-Limit", "5000")
+                .header("X-RateLimit-Remaining", "50")
+                .header("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+        GitHubRateLimiter rateLimiter = new GitHubRateLimiter(100, 100, 100, 0, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new RateLimitInterceptor(rateLimiter));
+        HttpUtil httpUtil = new HttpUtil(restTemplate, 1 << 20);
+        ReflectionTestUtils.setField(service, "httpUtil", httpUtil);
+
+        assertThatThrownBy(() -> service.analyzeControllers(info, new HttpHeaders()))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAt())
+                        .isGreaterThan(System.currentTimeMillis() + 3000_000));
+        assertThat(blobRequests()).isZero();
+        assertThat(server.requests()).extracting(StubHttpServer.Request::path)
+                .contains("/repos/octo/demo/branches/main", "/repos/octo/demo/git/trees/c1");
+    }
+
+    @Test
+    void cancelledAnalysisStopsBeforeFetching() {
+        repository("c1", Map.of(CONTROLLER, CONTROLLER_SOURCE, USER_DTO, USER_DTO_SOURCE));
+        AnalysisProgress progress = new AnalysisProgress();
+        progress.cancel();
+
+        // 取消结束整批分析，而不是作为单个条目的失败返回空结果
+        assertThatThrownBy(() -> service.analyzeControllers(info, new HttpHeaders(), progress))
+                .isInstanceOf(CancellationException.class);
+        assertThat(blobRequests()).isZero();
+        assertThat(progress.getFetched()).isZero();
+    }
+
+    @Test
+    void sameQualifiedNameInTwoModulesIsNotMerged() throws Exception {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("a/src/main/java/com/x/controller/AController.java", moduleController("AController"));
+        files.put("b/src/main/java/com/x/controller/BController.java", moduleController("BController"));
+        files.put("a/src/main/java/com/x/dto/UserDto.java", moduleDto("moduleA"));
+        files.put("b/src/main/java/com/x/dto/UserDto.java", moduleDto("moduleB"));
+        files.put("common/src/main/java/com/x/dto/PageDto.java", "package com.x.dto;\n\npublic class PageDto { private int size; }\n");
+        repository("c1", files);
+
+        DeduplicatedAnalysisResult result = service.analyzeControllersDeduplicated(info, new HttpHeaders());
+
+        // 两个模块的 UserDto 全限定名相同：按路径区分，各控制器引用本模块中的类；唯一的 PageDto 仍按全限定名
+        assertThat(result.getDtos()).containsOnlyKeys(
+                "a/src/main/java/com/x/dto/UserDto.java", "b/src/main/java/com/x/dto/UserDto.java", "com.x.dto.PageDto");
+        assertThat(result.getDtos().get("a/src/main/java/com/x/dto/UserDto.java")).contains("moduleA");
+        assertThat(result.getDtos().get("b/src/main/java/com/x/dto/UserDto.java")).contains("moduleB");
+        assertThat(result.getControllers()).extracting(ControllerEntry::getDtoIds).containsExactly(
+                List.of("a/src/main/java/com/x/dto/UserDto.java", "com.x.dto.PageDto"),
+                List.of("b/src/main/java/com/x/dto/UserDto.java", "com.x.dto.PageDto"));
+    }
+
+    private static String moduleController(String name) {
+        return CONTROLLER_SOURCE.replace("UserController", name);
+    }
+
+    private static String moduleDto(String field) {
+        return "package com.x.dto;\n\npublic class UserDto { private String " + field + "; private PageDto page; }\n";
+    }
+
+    // 模拟一次提交：分支指向 commit，仓库树包含 files，各文件可通过 blob 接口获取
+    private void repository(String commit, Map<String, String> files) {
+        json("/repos/octo/demo/branches/main", "{\"commit\": {\"sha\": \"" + commit + "\"}}");
+        StringJoiner items = new StringJoiner(",", "[", "]");
+        new LinkedHashMap<>(files).forEach((path, source) -> {
+            items.add("{\"path\": \"" + path + "\", \"type\": \"blob\", \"sha\": \"" + sha(path) + "\"}");
+            blob(path, source);
+        });
+        json("/repos/octo/demo/git/trees/" + commit, "{\"sha\": \"" + commit + "\", \"truncated\": false, \"tree\": " + items + "}");
+    }
+
+    private void blob(String path, String source) {
+        String content = Base64.getMimeEncoder().encodeToString(source.getBytes(StandardCharsets.UTF_8));
+        json(blobPath(path), "{\"content\": \"" + content.replace("\r\n", "\\n") + "\", \"encoding\": \"base64\"}");
+    }
+
+    private int blobRequests() {
+        return (int) server.requests().stream().filter(request -> request.path().contains("/git/blobs/")).count();
+    }
+
+    private static String blobPath(String path) {
+        return "/repos/octo/demo/git/blobs/" + sha(path);
+    }
+
+    private static String sha(String path) {
+        return "sha-" + Integer.toHexString(path.hashCode());
+    }
+
+    private void json(String path, String body) {
+        server.route(path, 200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,278 @@
+package com.lps.tools.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * @author hhuang26
+ * @description LLM 输出拼接为 Markdown：代码块标识（包括字符串中的）被跳过，\n、\"、\t 修复为对应字符，
+ * apiInfo、cat 只接受字符串或 null，其他字段忽略；subMdToStr 与流式读取请求体的 writeMarkdown 结果一致。
+ * 排序模式按 URL + 请求方法去重（保留 apiInfo 最长的一条），按 分组 → URL → 请求方法 排序，结果与输入顺序无关
+ */
+class MarkdownFixerServiceTest {
+
+    private static final String TITLE = "# API Documentation\n# Endpoint List\n";
+    private static final String TABLE_HEADER = "| Endpoint URL | HTTP Method | Description |\n| --- | --- | --- |\n";
+    private static final String HEADER = TITLE + TABLE_HEADER;
+
+    private static final List<String> ENDPOINTS = List.of(
+            fragment("## 删除用户", "| /user/{id} | DELETE | 删除 |"),
+            fragment("## 查询用户", "| /user/{id} | GET | 查询 |"),
+            fragment("## 订单列表", "| `/order/list` | get | 订单 |"),
+            fragment("## 登录", "| https://api.example.com/user/login | POST | 登录 |"),
+            fragment("## 其他", "| 无 URL |"),
+            fragment("## 检查用户", "| /user/{id} | HEAD | 检查 |"),
+            fragment("## 修改用户", "| /user/{id} | PUT | 修改 |"));
+
+    private final MarkdownFixerService service = new MarkdownFixerService();
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void subMdToStr(String name, List<String> outputs, String expected) throws Exception {
+        assertThat(service.subMdToStr(outputs)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void streamingMatchesSubMdToStr(String name, List<String> outputs, String expected) throws Exception {
+        StringWriter out = new StringWriter();
+        service.writeMarkdown(body(Map.of("output", outputs)), out);
+        assertThat(out.toString()).isEqualTo(expected);
+    }
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                arguments("代码块包裹，先输出全部 cat 再输出全部 apiInfo",
+                        List.of("```json\n{\"apiInfo\": \"## 查询用户\", \"cat\": \"| /users | GET | 查询 |\"}\n```",
+                                "  ```json\n{\"cat\": \"| /users | POST | 新增 |\", \"apiInfo\": \"## 新增用户\"}```  \n"),
+                        HEADER + "| /users | GET | 查询 |\n| /users | POST | 新增 |\n## 查询用户\n## 新增用户\n"),
+                arguments("字符串中的代码块标识同样跳过",
+                        List.of("{\"apiInfo\": \"示例 ```java code``` 结束\", \"cat\": \"| /a | GET | ```json\\n说明 |\"}"),
+                        HEADER + "| /a | GET | json\n说明 |\n示例 java code 结束\n"),
+                arguments("字符串中的 \\n、\\\"、\\t 修复，其他反斜杠保留",
+                        List.of("{\"apiInfo\": \"第一行\\\\n第二行 \\\\\\\"引号\\\\\\\" \\\\t制表 \\\\\\\\ 反斜杠 \\\\r\", "
+                                + "\"cat\": \"| /b | POST | \\\\\\\"b\\\\\\\" |\"}"),
+                        HEADER + "| /b | POST | \"b\" |\n第一行\n第二行 \"引号\" \t制表 \\\\ 反斜杠 \\r\n"),
+                arguments("JSON 转义本身不受影响",
+                        List.of("{\"apiInfo\": \"a\\nb \\\"c\\\" \\u4e2d\", \"cat\": \"| /c | GET | c |\"}"),
+                        HEADER + "| /c | GET | c |\na\nb \"c\" 中\n"),
+                arguments("null、空字符串及缺少的字段不输出",
+                        List.of("{\"apiInfo\": null, \"cat\": \"| /d | GET | d |\"}",
+                                "{\"apiInfo\": \"\", \"cat\": \"\"}",
+                                "{\"cat\": null}",
+                                "{}",
+                                "{\"apiInfo\": \"## e\"}"),
+                        HEADER + "| /d | GET | d |\n## e\n"),
+                arguments("其他字段忽略",
+                        List.of("{\"id\": 1, \"apiInfo\": \"x\", \"meta\": {\"cat\": \"ignored\", \"list\": [1, {\"apiInfo\": \"no\"}]}, "
+                                + "\"tags\": [\"a\"], \"cat\": \"| /f | GET | f |\", \"ok\": true, \"none\": null}"),
+                        HEADER + "| /f | GET | f |\nx\n"),
+                arguments("空列表",
+                        List.of(),
+                        "")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"apiInfo\": 1, \"cat\": \"| /a | GET | a |\"}",
+            "{\"apiInfo\": \"x\", \"cat\": true}",
+            "{\"apiInfo\": {\"text\": \"x\"}}",
+            "{\"cat\": [\"| /a | GET | a |\"]}",
+            "[]",
+            "\"text\"",
+            "not json",
+            ""
+    })
+    void invalidOutputIsRejected(String output) {
+        assertThatThrownBy(() -> service.subMdToStr(List.of(output))).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> service.writeMarkdown(body(Map.of("output", List.of(output))), new StringWriter()))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"output\": [\"{}\", 1]}",
+            "{\"output\": [null]}",
+            "{\"output\": [{\"apiInfo\": \"x\"}]}",
+            "{\"output\": [[\"{}\"]]}",
+            "{\"output\": [\"{}\"",
+            "[\"{}\"]"
+    })
+    void invalidBodyIsRejected(String body) {
+        assertThatThrownBy(() -> service.writeMarkdown(body(body), new StringWriter()))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    void otherBodyFieldsAreIgnored() throws IOException {
+        StringWriter out = new StringWriter();
+        service.writeMarkdown(body("{\"model\": \"m\", \"usage\": {\"output\": [1]}, \"output\": "
+                + "[\"{\\\"apiInfo\\\": \\\"x\\\", \\\"cat\\\": \\\"| /a | GET | a |\\\"}\"], \"tags\": [null, 1]}"), out);
+
+        assertThat(out.toString()).isEqualTo(HEADER + "| /a | GET | a |\nx\n");
+    }
+
+    @Test
+    void nonArrayOutputIsSkipped() throws IOException {
+        StringWriter out = new StringWriter();
+        service.writeMarkdown(body("{\"output\": \"{}\"}"), out);
+
+        assertThat(out.toString()).isEmpty();
+    }
+
+    @Test
+    void sortedGroupsEndpointsByPathPrefix() throws Exception {
+        String expected = TITLE
+                + "## /order/list\n" + TABLE_HEADER
+                + "| `/order/list` | get | 订单 |\n"
+                + "## /user\n" + TABLE_HEADER
+                + "| /user/{id} | GET | 查询 |\n"
+                + "| /user/{id} | PUT | 修改 |\n"
+                + "| /user/{id} | DELETE | 删除 |\n"
+                + "| /user/{id} | HEAD | 检查 |\n"
+                + "## /user/login\n" + TABLE_HEADER
+                + "| https://api.example.com/user/login | POST | 登录 |\n"
+                + "## Other\n" + TABLE_HEADER
+                + "| 无 URL |\n"
+                + "## 订单列表\n## 查询用户\n## 修改用户\n## 删除用户\n## 检查用户\n## 登录\n## 其他\n";
+
+        assertThat(service.subMdToStr(ENDPOINTS, true)).isEqualTo(expected);
+        StringWriter out = new StringWriter();
+        service.writeMarkdown(body(Map.of("output", ENDPOINTS)), out, true);
+        assertThat(out.toString()).isEqualTo(expected);
+    }
+
+    @Test
+    void duplicatesKeepLongestApiInfo() throws Exception {
+        List<String> outputs = List.of(
+                fragment("## 短", "| /a | GET | 1 |"),
+                fragment("## 更长的说明", "| `/a` | get | 2 |"),
+                fragment("## 中等长度", "| https://host/a | GET | 3 |"),
+                fragment(null, "| /a | GET | 4 |"),
+                // apiInfo 长度相同时取字典序较小的一条
+                fragment("## bb", "| /b | POST | bb |"),
+                fragment("## ab", "| /b | POST | ab |"),
+                // 方法不同不算重复
+                fragment("## c", "| /b | GET | c |"));
+
+        assertThat(service.subMdToStr(outputs, true)).isEqualTo(TITLE
+                + "## /a\n" + TABLE_HEADER + "| `/a` | get | 2 |\n"
+                + "## /b\n" + TABLE_HEADER + "| /b | GET | c |\n| /b | POST | ab |\n"
+                + "## 更长的说明\n## c\n## ab\n");
+    }
+
+    @Test
+    void shuffledInputGivesIdenticalOutput() throws Exception {
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+        service.init();
+        // 超过单个子任务的条数，并包含重复的接口
+        List<String> outputs = new ArrayList<>(ENDPOINTS);
+        for (int i = 0; i < 100; i++) {
+            outputs.add(fragment("## r" + i + "x".repeat(i % 5), "| /g" + i % 7 + "/r" + i % 40 + " | " + (i % 2 == 0 ? "GET" : "POST") + " | r |"));
+        }
+        String expected = service.subMdToStr(outputs, true);
+
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<String> shuffled = new ArrayList<>(outputs);
+            Collections.shuffle(shuffled, random);
+            assertThat(service.subMdToStr(shuffled, true)).isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} (depth {1}) -> {2}")
+    @MethodSource("groups")
+    void group(String url, int depth, String expected) throws Exception {
+        ReflectionTestUtils.setField(service, "groupDepth", depth);
+
+        assertThat(service.subMdToStr(List.of(fragment("x", "| " + url + " | GET | x |")), true))
+                .startsWith(TITLE + "## " + expected + "\n");
+    }
+
+    static Stream<Arguments> groups() {
+        return Stream.of(
+                arguments("/", 2, "/"),
+                arguments("/api", 2, "/api"),
+                arguments("/api/", 2, "/api"),
+                arguments("/api/user/list", 1, "/api"),
+                arguments("/api/user/list", 2, "/api/user"),
+                arguments("/api/user/list", 3, "/api/user/list"),
+                arguments("/api/user/{id}", 3, "/api/user"),
+                arguments("/api/{id}/items", 2, "/api"),
+                arguments("/{id}", 2, "/"),
+                arguments("/api?page=1", 2, "/api"),
+                arguments("/api/user?id=1&x=/y", 3, "/api/user"),
+                arguments("/api/?page=1", 2, "/api"),
+                arguments("/?q=1", 2, "/"),
+                arguments("`/api/user/list`", 2, "/api/user"),
+                arguments("https://host:8080/api/user/{id}", 2, "/api/user"),
+                arguments("https://host", 2, "/"),
+                arguments("api/user", 2, "Other"),
+                arguments("", 2, "Other")
+        );
+    }
+
+    @Test
+    void sortedParseErrorIsRethrownAsIs() {
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+        service.init();
+        List<String> outputs = new ArrayList<>(ENDPOINTS);
+        for (int i = 0; i < 40; i++) {
+            outputs.add(fragment("## " + i, "| /r" + i + " | GET | r |"));
+        }
+        outputs.add(30, "{\"apiInfo\": 1}");
+
+        assertThatThrownBy(() -> service.subMdToStr(outputs, true)).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> service.writeMarkdown(body(Map.of("output", outputs)), new StringWriter(), true))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    private static String fragment(String apiInfo, String cat) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("apiInfo", apiInfo);
+        fields.put("cat", cat);
+        try {
+            return "```json\n" + new ObjectMapper().writeValueAsString(fields) + "\n```";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static InputStream body(Object request) throws IOException {
+        return new ByteArrayInputStream(new ObjectMapper().writeValueAsBytes(request));
+    }
+
+    private static InputStream body(String request) {
+        return new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8));
+    }
+}
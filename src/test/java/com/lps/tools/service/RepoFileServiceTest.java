@@ -0,0 +1,98 @@
+package com.lps.tools.service;
+
+import com.lps.tools.config.GitHubAuthExchangeFilter;
+import com.lps.tools.model.GitHubRequestInfo;
+import com.lps.tools.support.StubHttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author hhuang26
+ * @description 文件下载地址：公开仓库按 raw 地址拼接，私有仓库使用 contents 接口返回的带 token 的 download_url
+ */
+class RepoFileServiceTest {
+
+    private static final String TREE = """
+            {"sha": "root", "truncated": false, "tree": [
+              {"path": "README.md", "type": "blob", "sha": "s1"},
+              {"path": "src", "type": "tree", "sha": "t1"},
+              {"path": "src/main", "type": "tree", "sha": "t2"},
+              {"path": "src/main/A.java", "type": "blob", "sha": "s2"},
+              {"path": "src/main/B.java", "type": "blob", "sha": "s3"}
+            ]}""";
+
+    private StubHttpServer server;
+    private RepoFileService service;
+    private final GitHubRequestInfo info = new GitHubRequestInfo("octo", "demo", "main", "test-token", "2022-11-28");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubHttpServer();
+        json("/repos/octo/demo/git/trees/main", TREE);
+        service = new RepoFileService();
+        ReflectionTestUtils.setField(service, "githubWebClient", WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .filter(new GitHubAuthExchangeFilter())
+                .build());
+        ReflectionTestUtils.setField(service, "crawlConcurrency", 4);
+        ReflectionTestUtils.setField(service, "rawBaseUrl", "https://raw.example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void publicRepositoryUsesRawUrls() {
+        json("/repos/octo/demo", "{\"private\": false}");
+
+        List<String> urls = service.listDownloadUrls(info).collectList().block();
+
+        assertThat(urls).containsExactly(
+                "https://raw.example.com/octo/demo/main/README.md",
+                "https://raw.example.com/octo/demo/main/src/main/A.java",
+                "https://raw.example.com/octo/demo/main/src/main/B.java");
+        assertThat(server.requests()).noneMatch(request -> request.path().contains("/contents"));
+    }
+
+    @Test
+    void privateRepositoryUsesContentsDownloadUrls() {
+        json("/repos/octo/demo", "{\"private\": true}");
+        json("/repos/octo/demo/contents/", """
+                [{"type": "file", "path": "README.md", "download_url": "https://raw.example.com/octo/demo/main/README.md?token=T1"},
+                 {"type": "dir", "path": "src", "download_url": null}]""");
+        // 目录列表中缺少 B.java（如目录超过 1000 项），需要单独获取
+        json("/repos/octo/demo/contents/src/main", """
+                [{"type": "file", "path": "src/main/A.java", "download_url": "https://raw.example.com/octo/demo/main/src/main/A.java?token=T2"}]""");
+        json("/repos/octo/demo/contents/src/main/B.java", """
+                {"type": "file", "path": "src/main/B.java", "download_url": "https://raw.example.com/octo/demo/main/src/main/B.java?token=T3"}""");
+
+        List<String> urls = service.listDownloadUrls(info).collectList().block();
+
+        assertThat(urls).containsExactly(
+                "https://raw.example.com/octo/demo/main/README.md?token=T1",
+                "https://raw.example.com/octo/demo/main/src/main/A.java?token=T2",
+                "https://raw.example.com/octo/demo/main/src/main/B.java?token=T3");
+        List<StubHttpServer.Request> contents = server.requests().stream()
+                .filter(request -> request.path().contains("/contents"))
+                .toList();
+        assertThat(contents).hasSize(3).allSatisfy(request -> {
+            assertThat(request.query()).isEqualTo("ref=main");
+            assertThat(request.headers().getFirst("Authorization")).isEqualTo("Bearer test-token");
+        });
+    }
+
+    private void json(String path, String body) {
+        server.route(path, 200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,287 @@
+package com.lps.tools.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author hhuang26
+ * @description 分段存储：重启恢复、损坏尾部截断、压缩及按容量淘汰、读写线程被中断
+ */
+class SegmentStoreTest {
+
+    /**
+     * 记录头：crc32、keyLength、valueLength
+     */
+    private static final int HEADER_BYTES = 12;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void valuesSurviveReopen() throws IOException {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            store.putString("a", "1");
+            store.putString("b", "2");
+            store.putString("a", "3");
+        }
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.getString("a")).isEqualTo("3");
+            assertThat(store.getString("b")).isEqualTo("2");
+            assertThat(store.getString("missing")).isNull();
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnReopen() throws IOException {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            store.putString("k1", "value-1");
+            store.putString("k2", "value-2");
+            store.putString("k3", "value-3");
+        }
+        Path segment = onlySegment();
+        long intact = 2L * record("k1", "value-1");
+        // 模拟写入最后一条记录时进程退出：只留下一部分
+        truncate(segment, intact + 5);
+
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.getString("k1")).isEqualTo("value-1");
+            assertThat(store.getString("k2")).isEqualTo("value-2");
+            assertThat(store.containsKey("k3")).isFalse();
+            assertThat(Files.size(segment)).isEqualTo(intact);
+            // 截断后继续追加，新记录紧接在有效数据之后
+            store.putString("k4", "value-4");
+        }
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.getString("k4")).isEqualTo("value-4");
+        }
+    }
+
+    @Test
+    void recordWithBadChecksumIsDropped() throws IOException {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            store.putString("k1", "value-1");
+            store.putString("k2", "value-2");
+        }
+        Path segment = onlySegment();
+        // 修改最后一条记录的 value 最后一个字节
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.getString("k1")).isEqualTo("value-1");
+            assertThat(store.containsKey("k2")).isFalse();
+            assertThat(Files.size(segment)).isEqualTo(record("k1", "value-1"));
+        }
+    }
+
+    @Test
+    void garbageHeaderWithHugeLengthsIsTruncated() throws IOException {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            store.putString("k1", "value-1");
+        }
+        Path segment = onlySegment();
+        ByteBuffer garbage = ByteBuffer.allocate(HEADER_BYTES + 4)
+                .putInt(0).putInt(Integer.MAX_VALUE).putInt(Integer.MAX_VALUE).putInt(42);
+        garbage.flip();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(garbage);
+        }
+
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.getString("k1")).isEqualTo("value-1");
+            assertThat(Files.size(segment)).isEqualTo(record("k1", "value-1"));
+        }
+    }
+
+    @Test
+    void compactionKeepsLatestValuePerKey() throws IOException {
+        Map<String, String> latest = new HashMap<>();
+        // 分段很小，反复覆盖同一批键，封存分段的有效数据很快低于一半
+        try (SegmentStore store = open(1 << 20, 512, 0.5)) {
+            for (int round = 0; round < 50; round++) {
+                for (int k = 0; k < 5; k++) {
+                    String key = "key-" + k;
+                    String value = "round-" + round + "-value-" + k;
+                    store.putString(key, value);
+                    latest.put(key, value);
+                }
+            }
+            assertThat(store.compactions()).isPositive();
+            assertThat(store.evictedSegments()).isZero();
+            assertThat(store.size()).isEqualTo(latest.size());
+            latest.forEach((key, value) -> assertThat(store.getString(key)).isEqualTo(value));
+            // 被覆盖的旧记录已随压缩删除
+            assertThat(store.totalBytes()).isLessThan(50L * 5 * record("key-0", "round-0-value-0"));
+        }
+        try (SegmentStore store = open(1 << 20, 512, 0.5)) {
+            assertThat(store.size()).isEqualTo(latest.size());
+            latest.forEach((key, value) -> assertThat(store.getString(key)).isEqualTo(value));
+        }
+    }
+
+    @Test
+    void evictionKeepsTotalSizeWithinBudget() throws IOException {
+        long maxBytes = 2048;
+        int count = 100;
+        try (SegmentStore store = open(maxBytes, 512, 0)) {
+            for (int i = 0; i < count; i++) {
+                store.putString(key(i), "value-" + "x".repeat(64) + i);
+                assertThat(store.totalBytes()).isLessThanOrEqualTo(maxBytes);
+            }
+            assertThat(store.evictedSegments()).isPositive();
+            // 最早写入的键随最早的分段一起淘汰，最近写入的键仍在
+            assertThat(store.containsKey(key(0))).isFalse();
+            assertThat(store.getString(key(count - 1))).isEqualTo("value-" + "x".repeat(64) + (count - 1));
+            assertThat(store.size()).isLessThan(count);
+            assertThat(segments().stream().mapToLong(SegmentStoreTest::size).sum()).isLessThanOrEqualTo(maxBytes);
+        }
+        try (SegmentStore store = open(maxBytes, 512, 0)) {
+            assertThat(store.containsKey(key(0))).isFalse();
+            assertThat(store.getString(key(count - 1))).isNotNull();
+        }
+    }
+
+    @Test
+    void interruptedReaderDoesNotCloseStoreForOthers() throws Exception {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            store.putString("a", "1");
+            store.putString("b", "2");
+
+            // 带着中断标记读写：不能因此关闭共享的通道，结束后保留中断标记
+            Thread.currentThread().interrupt();
+            assertThat(store.getString("a")).isEqualTo("1");
+            assertThat(Thread.interrupted()).isTrue();
+
+            Thread.currentThread().interrupt();
+            store.putString("c", "3");
+            assertThat(Thread.interrupted()).isTrue();
+
+            AtomicReference<String> fromOtherThread = new AtomicReference<>();
+            Thread reader = new Thread(() -> fromOtherThread.set(store.getString("b")));
+            reader.start();
+            reader.join();
+            assertThat(fromOtherThread.get()).isEqualTo("2");
+            assertThat(store.getString("c")).isEqualTo("3");
+        }
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            assertThat(store.getString("c")).isEqualTo("3");
+        }
+    }
+
+    @Test
+    void concurrentReadersSurviveRepeatedInterrupts() throws Exception {
+        try (SegmentStore store = open(1 << 20, 1 << 16, 0.5)) {
+            for (int i = 0; i < 20; i++) {
+                store.putString(key(i), "value-" + i);
+            }
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicInteger misses = new AtomicInteger();
+            List<Thread> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread reader = new Thread(() -> {
+                    for (int i = 0; running.get(); i = (i + 1) % 20) {
+                        if (!("value-" + i).equals(store.getString(key(i)))) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                });
+                readers.add(reader);
+                reader.start();
+            }
+            for (int round = 0; round < 200; round++) {
+                readers.forEach(Thread::interrupt);
+                Thread.sleep(1);
+            }
+            running.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+
+            assertThat(misses.get()).isZero();
+            store.putString("after", "ok");
+            assertThat(store.getString("after")).isEqualTo("ok");
+        }
+    }
+
+    @Test
+    void compactionKeepsSegmentWhenLiveRecordIsUnreadable() throws IOException {
+        String value = "v".repeat(50);
+        try (SegmentStore store = open(1 << 20, 512, 0.5)) {
+            // 第一个分段：keep 加 6 条记录，第 7 条写入时切换到第二个分段
+            store.putString("keep", value);
+            for (int i = 0; i < 7; i++) {
+                store.putString("k-" + i, value);
+            }
+            assertThat(segments()).hasSize(2);
+            Path first = segments().get(0);
+            // 第一个分段被外部截断，其中的有效记录都读不出来
+            truncate(first, HEADER_BYTES + 2);
+            for (int i = 0; i < 6; i++) {
+                store.putString("k-" + i, "new-" + i);
+            }
+
+            assertThat(store.compactions()).isZero();
+            assertThat(Files.exists(first)).isTrue();
+            assertThat(store.containsKey("keep")).isTrue();
+            assertThat(store.getString("k-0")).isEqualTo("new-0");
+        }
+    }
+
+    private SegmentStore open(long maxBytes, long segmentBytes, double compactRatio) throws IOException {
+        return new SegmentStore(dir, maxBytes, segmentBytes, compactRatio);
+    }
+
+    private static String key(int i) {
+        return String.format("key-%03d", i);
+    }
+
+    private static long record(String key, String value) {
+        return HEADER_BYTES + key.length() + value.length();
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
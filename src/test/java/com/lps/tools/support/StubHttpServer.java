@@ -0,0 +1,82 @@
+package com.lps.tools.support;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author hhuang26
+ * @description 测试用的本地 HTTP 服务：按路径返回预设响应，并记录收到的请求
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, Response> routes = new ConcurrentHashMap<>();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, String> headers = new ConcurrentHashMap<>();
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 对 path（不含查询参数）返回 status 及响应体
+     */
+    public StubHttpServer route(String path, int status, String contentType, byte[] body) {
+        routes.put(path, new Response(status, contentType, body));
+        return this;
+    }
+
+    /**
+     * 所有响应都带上该响应头（如 X-RateLimit-Remaining）
+     */
+    public StubHttpServer header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public List<Request> requests() {
+        return requests;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(new Request(exchange.getRequestMethod(), path, exchange.getRequestURI().getRawQuery(), exchange.getRequestHeaders()));
+        Response response = routes.get(path);
+        if (response == null) {
+            response = new Response(404, "application/json", "{\"message\":\"Not Found\"}".getBytes());
+        }
+        headers.forEach(exchange.getResponseHeaders()::set);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body());
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private record Response(int status, String contentType, byte[] body) {
+    }
+
+    public record Request(String method, String path, String query, Headers headers) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.lps.tools.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * @author hhuang26
+ * @description 源码压缩：只移除顶层 package / import 语句，字面量与注释中的内容原样保留，连续空白合并为一个空格
+ */
+class CodeCleanerTest {
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void clean(String name, String input, boolean stripComments, String expected) {
+        assertThat(CodeCleaner.clean(input, stripComments)).isEqualTo(expected);
+    }
+
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                arguments("顶层 package / import",
+                        "package com.a;\nimport java.util.List;\nimport static x.Y.z;\n\npublic class A {}\n",
+                        false, "public class A {}"),
+                arguments("字符串中的 package / import / //",
+                        "package p;\nclass A { String s = \"package x; import y; // z\"; }",
+                        false, "class A { String s = \"package x; import y; // z\"; }"),
+                arguments("字符串中的转义引号",
+                        "class A { String s = \"a\\\"// b\"; }",
+                        true, "class A { String s = \"a\\\"// b\"; }"),
+                arguments("字符字面量",
+                        "class A { char q = '\"'; char e = '\\''; char s = '/'; String t = \"//\"; }",
+                        true, "class A { char q = '\"'; char e = '\\''; char s = '/'; String t = \"//\"; }"),
+                arguments("文本块内容保留，换行压缩为空格",
+                        "class A { String s = \"\"\"\n    package x;\n    // y\n    \"\"\"; }",
+                        true, "class A { String s = \"\"\" package x; // y \"\"\"; }"),
+                arguments("顶层注解参数中的 import",
+                        "import a.Doc;\n@Doc(\"import x;\") class A {}",
+                        false, "@Doc(\"import x;\") class A {}"),
+                arguments("保留注释时注释中的 package / import 不移除",
+                        "// import a.b;\nclass A { /* package x; */ }",
+                        false, "// import a.b; class A { /* package x; */ }"),
+                arguments("移除注释",
+                        "// import a.b;\nclass A { /* package x; */ }",
+                        true, "class A { }"),
+                arguments("保留文档注释与行尾注释",
+                        "/**\n * doc\n */\npublic class A {\n  // note\n  int x; // trailing\n}",
+                        false, "/** * doc */ public class A { // note int x; // trailing }"),
+                arguments("移除文档注释与行尾注释",
+                        "/**\n * doc\n */\npublic class A {\n  // note\n  int x; // trailing\n}",
+                        true, "public class A { int x; }"),
+                arguments("depth > 0 的 import 保留",
+                        "class A {\n    import x;\n}",
+                        false, "class A { import x; }"),
+                arguments("以 package / import 开头的标识符",
+                        "class A { int packageName; int importer; }",
+                        false, "class A { int packageName; int importer; }"),
+                arguments("连续空白合并为一个空格",
+                        "class\tA\r\n{\n\n    int  x;\f}",
+                        false, "class A { int x; }"),
+                arguments("无结尾换行的行注释",
+                        "class A {} // end",
+                        false, "class A {} // end"),
+                arguments("无结尾换行的行注释被移除",
+                        "class A {} // end",
+                        true, "class A {}"),
+                arguments("无结尾换行的 import",
+                        "class A {}\nimport a.B;",
+                        false, "class A {}"),
+                arguments("缺少分号的 import 吞掉剩余内容",
+                        "class A {}\nimport a.B",
+                        false, "class A {}"),
+                arguments("空字符串",
+                        "",
+                        false, "")
+        );
+    }
+
+    @Test
+    void nullBecomesEmpty() {
+        assertThat(CodeCleaner.clean(null)).isEmpty();
+    }
+
+    @Test
+    void defaultKeepsComments() {
+        assertThat(CodeCleaner.clean("class A { /* c */ }")).isEqualTo("class A { /* c */ }");
+    }
+}
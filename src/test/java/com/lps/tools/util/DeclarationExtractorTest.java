@@ -0,0 +1,226 @@
+package com.lps.tools.util;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.CompactConstructorDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * @author hhuang26
+ * @description 声明提取：去掉方法体后解析出的方法签名（入参、返回值类型）与完整解析一致，无法判断时返回 null。
+ * 方法体内的局部类、匿名类本来就会随方法体去掉，不参与比较
+ */
+class DeclarationExtractorTest {
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("sources")
+    void signaturesMatchFullParse(String name, String source, String removedMarker) {
+        String stripped = DeclarationExtractor.stripBodies(source);
+
+        assertThat(stripped).isNotNull().doesNotContain(removedMarker);
+        List<String> expected = signatures(JavaParsers.parse(source));
+        assertThat(expected).isNotEmpty();
+        assertThat(signatures(JavaParsers.parse(stripped))).isEqualTo(expected);
+    }
+
+    static Stream<Arguments> sources() {
+        return Stream.of(
+                arguments("控制器", """
+                        package com.example.web;
+
+                        import java.util.*;
+
+                        @RestController
+                        @RequestMapping(value = {"/users", "/members"})
+                        public class UserController {
+                            private static final Map<String, String> NAMES = new HashMap<>() {{ put("a", "{"); }};
+                            private final UserService service;
+
+                            static { System.out.println("BODY static"); }
+
+                            { System.out.println("BODY init"); }
+
+                            public UserController(UserService service) { this.service = service; }
+
+                            /** 查询 { 注释中的花括号 */
+                            @GetMapping("/{id}")
+                            public ResponseEntity<UserDto> get(@PathVariable("id") Long id) {
+                                String s = "BODY } \\" {";
+                                char c = '}';
+                                if (id == null) { return null; } else { return ResponseEntity.ok(service.find(id)); }
+                            }
+
+                            @PostMapping
+                            public <T extends BaseDto> Result<List<T>> create(@RequestBody List<T> items, int[] sizes) throws IOException {
+                                String text = \"""
+                                        BODY { text block }
+                                        \""";
+                                Runnable r = () -> { System.out.println("}"); };
+                                Object o = new Object() { public String toString() { return "BODY"; } };
+                                return Result.ok(items);
+                            }
+
+                            @GetMapping(path = "/page", produces = "application/json")
+                            Page<UserDto> page(@RequestParam(required = false, defaultValue = "1") int page, Map<String, Object> query) { return null; }
+                        }
+                        """, "BODY"),
+                arguments("带类体的枚举常量", """
+                        public enum Operation {
+                            ADD("+") {
+                                @Override
+                                public Result<Integer> apply(IntPair pair) { return Result.ok(pair.a() + pair.b() + BODY); }
+                            },
+                            NEGATE {
+                                public Result<Integer> apply(IntPair pair) { return Result.ok(-pair.a() + BODY); }
+
+                                Long extra(Page<Long> page) { return 0L + BODY; }
+                            },
+                            NONE;
+
+                            private final String symbol;
+
+                            Operation() { this("BODY"); }
+
+                            Operation(String symbol) { this.symbol = symbol; }
+
+                            public abstract Result<Integer> apply(IntPair pair);
+
+                            enum Inner { A { void inner(String s) { System.out.println(BODY); } }, B }
+                        }
+                        """, "BODY"),
+                arguments("紧凑构造器的记录类", """
+                        public record Page<T>(List<T> items, long total) implements Serializable {
+                            public Page {
+                                if (total < 0) { throw new IllegalArgumentException("BODY"); }
+                                items = List.copyOf(items);
+                            }
+
+                            public Page(List<T> items) { this(items, items.size()); }
+
+                            public static <T> Page<T> empty() { return new Page<>(List.of(), 0 + BODY); }
+
+                            record Cursor(String next) { Cursor { next = next == null ? "BODY" : next; } }
+                        }
+                        """, "BODY"),
+                arguments("带花括号默认值的注解", """
+                        public @interface Route {
+                            String[] value() default {"/a", "/b"};
+
+                            Class<?>[] groups() default {};
+
+                            Method[] methods() default {Method.GET};
+
+                            int order() default 0;
+
+                            Method method() default Method.GET;
+                        }
+
+                        @Route(value = {"/x"}, groups = {A.class})
+                        class RouteController {
+                            @Route({"/y"})
+                            public Map<String, List<Long>> route(@Route(groups = {B.class}) Set<String> keys) { return Map.of("BODY", List.of()); }
+                        }
+                        """, "BODY"),
+                arguments("字段初始化中的 lambda 与匿名类", """
+                        public class Handlers {
+                            private final Runnable runnable = () -> { System.out.println("}"); };
+                            private final Function<Integer, Integer> abs = x -> { if (x > 0) { return x; } return -x; };
+                            private final Comparator<UserDto> comparator = new Comparator<>() {
+                                @Override
+                                public int compare(UserDto a, UserDto b) { return a.getName().compareTo(b.getName() + BODY); }
+                            };
+                            static final Map<String, Supplier<Object>> SUPPLIERS = Map.of("a", () -> {
+                                return new Object() { public String describe(Locale locale) { return "{"; } };
+                            });
+                            private final int[] sizes = {1, 2, 3};
+                            private final boolean ok = 1 >= 0 && 1 != 2;
+
+                            public List<UserDto> list(Predicate<UserDto> filter) { return List.of(BODY); }
+                        }
+                        """, "BODY"),
+                arguments("名为 record 的方法与参数", """
+                        @RestController
+                        public class RecordController {
+                            private Record record;
+
+                            @PostMapping("/record")
+                            public Result<Entry> record(@RequestBody Entry record) { return Result.ok(record + BODY); }
+
+                            public record Entry(String name) {}
+                        }
+                        """, "BODY"),
+                arguments("接口的默认方法与静态方法", """
+                        public interface UserApi<ID> {
+                            @GetMapping("/{id}")
+                            UserDto get(ID id);
+
+                            default List<UserDto> all() { return List.of(BODY); }
+
+                            static <T> Optional<T> none(Class<T> type) { return Optional.empty(BODY); }
+                        }
+                        """, "BODY")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "class A { void f() { }",
+            "class A { } }",
+            "class A { void f( { } }",
+            "class A { String s = \"unterminated; }",
+            "class A { char c = 'x; }",
+            "class A { String s = \"\"\" text block }",
+            "class A { /* unterminated }",
+            "class A { void f() { /* unterminated } }",
+            "class A { void f() { String s = \"unterminated; } }"
+    })
+    void unbalancedInputReturnsNull(String source) {
+        assertThat(DeclarationExtractor.stripBodies(source)).isNull();
+    }
+
+    // 方法体之外每个方法、构造器的参数类型及返回值类型，按源码顺序
+    private static List<String> signatures(CompilationUnit cu) {
+        List<String> signatures = new ArrayList<>();
+        cu.walk(Node.TreeTraversal.PREORDER, node -> {
+            if (insideBody(node)) {
+                return;
+            }
+            if (node instanceof MethodDeclaration method) {
+                signatures.add(method.getTypeParameters() + " " + method.getType() + " " + parameters(method));
+            } else if (node instanceof CallableDeclaration<?> callable) {
+                signatures.add("<init> " + parameters(callable));
+            } else if (node instanceof CompactConstructorDeclaration compact) {
+                signatures.add("<compact> " + compact.getNameAsString());
+            }
+        });
+        return signatures;
+    }
+
+    private static boolean insideBody(Node node) {
+        return node.findAncestor(CallableDeclaration.class).isPresent()
+                || node.findAncestor(CompactConstructorDeclaration.class).isPresent()
+                || node.findAncestor(InitializerDeclaration.class).isPresent();
+    }
+
+    private static String parameters(CallableDeclaration<?> callable) {
+        return callable.getNameAsString() + callable.getParameters().stream()
+                .map(Parameter::getType)
+                .map(Object::toString)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}